@@ -0,0 +1,76 @@
+package com.nure.tsolver.benchmark;
+
+import com.nure.tsolver.BatchSolver;
+import com.nure.tsolver.ProductDistributor;
+import com.nure.tsolver.model.DistributionPlan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch throughput benchmark, score is count of solved problems per second. Zero threads means default executor
+ * of {@code BatchSolver}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+@OperationsPerInvocation(BatchSolverBenchmark.BATCH_SIZE)
+public class BatchSolverBenchmark {
+    static final int BATCH_SIZE = 256;
+    private static final long SEED = 20_191_103L;
+
+    @Param({"20", "100"})
+    public int size;
+
+    @Param({"UNIFORM", "CLUSTERED"})
+    public CostDistribution distribution;
+
+    @Param({"1", "4", "0"})
+    public int threads;
+
+    private List<TransportInstance> instances;
+    private ExecutorService executor;
+    private BatchSolver batchSolver;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        instances = new ArrayList<>(BATCH_SIZE);
+        for (int k = 0; k < BATCH_SIZE; k++)
+            instances.add(TransportInstance.generate(size, distribution, SEED + k));
+        executor = threads == 0 ? BatchSolver.newDefaultExecutor() : Executors.newFixedThreadPool(threads);
+        batchSolver = new BatchSolver(executor);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public List<DistributionPlan> solveAll() {
+        List<ProductDistributor> distributors = new ArrayList<>(BATCH_SIZE);
+        for (TransportInstance instance : instances)
+            distributors.add(new ProductDistributor(instance.getCostArray(), instance.toParticipants()));
+        return batchSolver.solveAll(distributors);
+    }
+}
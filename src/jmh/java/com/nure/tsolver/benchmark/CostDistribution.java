@@ -0,0 +1,19 @@
+package com.nure.tsolver.benchmark;
+
+/**
+ * Shapes of generated benchmark instances.
+ */
+public enum CostDistribution {
+    /**
+     * Tariffs are uniformly distributed, supplies and demands are random.
+     */
+    UNIFORM,
+    /**
+     * Suppliers and consumers are grouped in clusters on plane, tariff is distance between them.
+     */
+    CLUSTERED,
+    /**
+     * Few distinct tariffs, all supplies and all demands are equal, so initial plans and pivots are degenerate.
+     */
+    DEGENERATE
+}
@@ -0,0 +1,41 @@
+package com.nure.tsolver.benchmark;
+
+import com.nure.tsolver.MinElementPlanSolver;
+import com.nure.tsolver.NorthWestPlan;
+import com.nure.tsolver.model.CompactPlan;
+import com.nure.tsolver.model.DistributionParticipants;
+import com.nure.tsolver.model.DistributionPlan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Initial plan heuristics benchmark.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class InitialPlanBenchmark {
+
+    @Benchmark
+    public DistributionPlan minElementFindPlan(InstanceState state) {
+        CompactPlan costMatrix = state.instance.toCompactPlan();
+        DistributionParticipants participants = state.instance.toParticipants();
+        return new MinElementPlanSolver(costMatrix, participants).findPlan();
+    }
+
+    @Benchmark
+    public DistributionPlan northWestFindPlan(InstanceState state) {
+        CompactPlan costMatrix = state.instance.toCompactPlan();
+        DistributionParticipants participants = state.instance.toParticipants();
+        return new NorthWestPlan(costMatrix, participants).findPlan();
+    }
+}
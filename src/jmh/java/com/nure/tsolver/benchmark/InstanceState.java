@@ -0,0 +1,29 @@
+package com.nure.tsolver.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark state with generated instance. Size and cost distribution are JMH parameters and can be narrowed
+ * from command line, for example {@code -p size=100 -p distribution=CLUSTERED}.
+ */
+@State(Scope.Benchmark)
+public class InstanceState {
+    private static final long SEED = 20_191_103L;
+
+    @Param({"10", "100", "500", "2000"})
+    public int size;
+
+    @Param({"UNIFORM", "CLUSTERED", "DEGENERATE"})
+    public CostDistribution distribution;
+
+    public TransportInstance instance;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        instance = TransportInstance.generate(size, distribution, SEED);
+    }
+}
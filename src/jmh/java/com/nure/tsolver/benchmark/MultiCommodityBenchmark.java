@@ -0,0 +1,85 @@
+package com.nure.tsolver.benchmark;
+
+import com.nure.tsolver.MultiCommodityDistributor;
+import com.nure.tsolver.MultiCommodityOptions;
+import com.nure.tsolver.model.DistributionParticipants;
+import com.nure.tsolver.model.MultiCommodityPlan;
+import com.nure.tsolver.model.MultiCommodityProblem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lagrangian decomposition of multi-commodity problem with subproblems of commodities solved in parallel and one
+ * by one. Every route can take about a quarter of products that a supplier of one commodity ships, so
+ * capacities are binding.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MultiCommodityBenchmark {
+    private static final long SEED = 20_191_103L;
+    private static final int ITERATIONS = 30;
+
+    @Param({"50", "200"})
+    public int size;
+
+    @Param({"2", "8"})
+    public int commodities;
+
+    private MultiCommodityProblem problem;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<int[][]> costArrays = new ArrayList<>(commodities);
+        List<DistributionParticipants> participants = new ArrayList<>(commodities);
+        long totalSupply = 0;
+        for (int k = 0; k < commodities; k++) {
+            TransportInstance instance = TransportInstance.generate(size, CostDistribution.UNIFORM, SEED + k);
+            costArrays.add(instance.getCostArray());
+            participants.add(instance.toParticipants());
+            totalSupply += participants.get(k).totalSupply();
+        }
+        int capacity = (int) Math.max(1, totalSupply / commodities / size / 4);
+        int[][] capacities = new int[size][size];
+        for (int[] row : capacities) {
+            for (int j = 0; j < size; j++)
+                row[j] = capacity;
+        }
+        problem = MultiCommodityProblem.fromCostArrays(costArrays, participants, capacities);
+    }
+
+    @Benchmark
+    public MultiCommodityPlan parallel() {
+        return solve(true);
+    }
+
+    @Benchmark
+    public MultiCommodityPlan sequential() {
+        return solve(false);
+    }
+
+    private MultiCommodityPlan solve(boolean parallel) {
+        MultiCommodityOptions options = MultiCommodityOptions.builder()
+                .maxIterations(ITERATIONS)
+                .parallel(parallel)
+                .build();
+        return new MultiCommodityDistributor(problem, options).distribute();
+    }
+}
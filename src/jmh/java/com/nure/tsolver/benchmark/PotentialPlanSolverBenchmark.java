@@ -0,0 +1,43 @@
+package com.nure.tsolver.benchmark;
+
+import com.nure.tsolver.MinElementPlanSolver;
+import com.nure.tsolver.PotentialPlanSolver;
+import com.nure.tsolver.model.DistributionPlan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Potential method benchmark. Initial plan is built by minimal element algorithm before every invocation and
+ * is not measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class PotentialPlanSolverBenchmark {
+    private DistributionPlan initialPlan;
+
+    @Setup(Level.Invocation)
+    public void buildInitialPlan(InstanceState state) {
+        initialPlan = new MinElementPlanSolver(state.instance.toCompactPlan(), state.instance.toParticipants())
+                .findPlan();
+    }
+
+    @Benchmark
+    public DistributionPlan findOptimalPlan() {
+        return new PotentialPlanSolver(initialPlan).findOptimalPlan();
+    }
+}
@@ -0,0 +1,29 @@
+package com.nure.tsolver.benchmark;
+
+import com.nure.tsolver.ProductDistributor;
+import com.nure.tsolver.model.DistributionPlan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole solver pipeline benchmark: compact plan creation, initial plan and potential method.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ProductDistributorBenchmark {
+
+    @Benchmark
+    public DistributionPlan distribute(InstanceState state) {
+        return new ProductDistributor(state.instance.getCostArray(), state.instance.toParticipants()).distribute();
+    }
+}
@@ -0,0 +1,53 @@
+package com.nure.tsolver.benchmark;
+
+import com.nure.tsolver.SolverEngine;
+import com.nure.tsolver.SolverOptions;
+import com.nure.tsolver.model.CompactPlan;
+import com.nure.tsolver.model.DistributionParticipants;
+import com.nure.tsolver.model.DistributionPlan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Side by side benchmark of solver engines on equal instances. Engines do not change cost matrix and participants,
+ * so they are converted once per trial and are not measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SolverEngineBenchmark {
+
+    @Param({"POTENTIAL", "NETWORK_SIMPLEX", "COST_SCALING", "AUCTION"})
+    public SolverEngine engine;
+
+    private SolverOptions options;
+    private CompactPlan costMatrix;
+    private DistributionParticipants participants;
+
+    @Setup(Level.Trial)
+    public void convertInstance(InstanceState state) {
+        options = SolverOptions.builder().engine(engine).build();
+        costMatrix = state.instance.toCompactPlan();
+        participants = state.instance.toParticipants();
+    }
+
+    @Benchmark
+    public DistributionPlan solve() {
+        return engine.newSolver(options).solve(costMatrix, participants);
+    }
+}
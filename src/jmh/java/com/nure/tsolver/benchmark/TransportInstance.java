@@ -0,0 +1,155 @@
+package com.nure.tsolver.benchmark;
+
+import com.nure.tsolver.model.CompactPlan;
+import com.nure.tsolver.model.DistributionParticipants;
+
+import java.util.Random;
+
+/**
+ * Seeded random balanced transportation problem for benchmarks. Total supply is always equal to total demand.
+ */
+public class TransportInstance {
+    private static final int CLUSTERS = 8;
+    private static final int PLANE_SIZE = 1000;
+
+    private final int height;
+    private final int width;
+    private final int[][] costArray;
+    private final int[] supplies;
+    private final int[] demands;
+
+    private TransportInstance(int[][] costArray, int[] supplies, int[] demands) {
+        this.height = supplies.length;
+        this.width = demands.length;
+        this.costArray = costArray;
+        this.supplies = supplies;
+        this.demands = demands;
+    }
+
+    /**
+     * Generates square instance.
+     *
+     * @param size         count of suppliers and consumers.
+     * @param distribution shape of tariffs, supplies and demands.
+     * @param seed         random seed, equal seeds give equal instances.
+     * @return generated instance.
+     */
+    public static TransportInstance generate(int size, CostDistribution distribution, long seed) {
+        Random random = new Random(seed);
+        switch (distribution) {
+            case CLUSTERED:
+                return clustered(size, random);
+            case DEGENERATE:
+                return degenerate(size, random);
+            default:
+                return uniform(size, random);
+        }
+    }
+
+    private static TransportInstance uniform(int size, Random random) {
+        int[][] costArray = new int[size][size];
+        for (int[] row : costArray) {
+            for (int j = 0; j < size; j++)
+                row[j] = 1 + random.nextInt(PLANE_SIZE);
+        }
+        int[] supplies = randomSupplies(size, random);
+        return new TransportInstance(costArray, supplies, balancedDemands(size, supplies, random));
+    }
+
+    private static TransportInstance clustered(int size, Random random) {
+        int[][] centers = new int[CLUSTERS][];
+        for (int k = 0; k < CLUSTERS; k++)
+            centers[k] = new int[]{random.nextInt(PLANE_SIZE), random.nextInt(PLANE_SIZE)};
+        int[][] supplierPoints = clusteredPoints(size, centers, random);
+        int[][] consumerPoints = clusteredPoints(size, centers, random);
+        int[][] costArray = new int[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                long dx = supplierPoints[i][0] - consumerPoints[j][0];
+                long dy = supplierPoints[i][1] - consumerPoints[j][1];
+                costArray[i][j] = 1 + (int) Math.sqrt(dx * dx + dy * dy);
+            }
+        }
+        int[] supplies = randomSupplies(size, random);
+        return new TransportInstance(costArray, supplies, balancedDemands(size, supplies, random));
+    }
+
+    private static TransportInstance degenerate(int size, Random random) {
+        int[][] costArray = new int[size][size];
+        for (int[] row : costArray) {
+            for (int j = 0; j < size; j++)
+                row[j] = 1 + random.nextInt(3);
+        }
+        int[] supplies = new int[size];
+        int[] demands = new int[size];
+        for (int k = 0; k < size; k++) {
+            supplies[k] = 10;
+            demands[k] = 10;
+        }
+        return new TransportInstance(costArray, supplies, demands);
+    }
+
+    private static int[][] clusteredPoints(int count, int[][] centers, Random random) {
+        int[][] points = new int[count][];
+        for (int k = 0; k < count; k++) {
+            int[] center = centers[random.nextInt(centers.length)];
+            points[k] = new int[]{
+                    center[0] + (int) (random.nextGaussian() * PLANE_SIZE / 20),
+                    center[1] + (int) (random.nextGaussian() * PLANE_SIZE / 20)};
+        }
+        return points;
+    }
+
+    private static int[] randomSupplies(int size, Random random) {
+        int[] supplies = new int[size];
+        for (int i = 0; i < size; i++)
+            supplies[i] = size + random.nextInt(100);
+        return supplies;
+    }
+
+    /**
+     * Splits total supply between consumers proportionally to random weights, remainder goes one unit per consumer.
+     */
+    private static int[] balancedDemands(int size, int[] supplies, Random random) {
+        long total = 0;
+        for (int supply : supplies)
+            total += supply;
+        double[] weights = new double[size];
+        double weightsSum = 0;
+        for (int j = 0; j < size; j++) {
+            weights[j] = 0.5 + random.nextDouble();
+            weightsSum += weights[j];
+        }
+        int[] demands = new int[size];
+        long rest = total;
+        for (int j = 0; j < size; j++) {
+            demands[j] = (int) (total * weights[j] / weightsSum);
+            rest -= demands[j];
+        }
+        for (int j = 0; rest > 0; j = (j + 1) % size, rest--)
+            demands[j]++;
+        return demands;
+    }
+
+    public int[][] getCostArray() {
+        return costArray;
+    }
+
+    /**
+     * Creates compact plan with instance tariffs and empty basis.
+     *
+     * @return new compact plan.
+     */
+    public CompactPlan toCompactPlan() {
+        return CompactPlan.fromCostArray(costArray, height, width);
+    }
+
+    /**
+     * Creates new participants of instance, solvers may change them.
+     *
+     * @return new distribution participants.
+     */
+    public DistributionParticipants toParticipants() {
+        return DistributionParticipants.of(supplies, demands);
+    }
+}
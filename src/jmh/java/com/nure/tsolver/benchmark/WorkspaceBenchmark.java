@@ -0,0 +1,72 @@
+package com.nure.tsolver.benchmark;
+
+import com.nure.tsolver.ProductDistributor;
+import com.nure.tsolver.SolverWorkspace;
+import com.nure.tsolver.model.DistributionPlan;
+import com.nure.tsolver.model.TransportProblem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repeated solves of same-shaped problems with and without {@code SolverWorkspace}. Problems are built once and
+ * solved in turn, so only solve itself is measured. With gc profiler of {@code BenchmarkRunner} the
+ * {@code gc.alloc.rate.norm} of {@code distributeWithWorkspace} must be about zero bytes per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class WorkspaceBenchmark {
+    private static final int PROBLEMS_COUNT = 8;
+    private static final long SEED = 20_191_103L;
+
+    @Param({"10", "100", "500"})
+    public int size;
+
+    @Param({"UNIFORM", "CLUSTERED"})
+    public CostDistribution distribution;
+
+    private ProductDistributor[] distributors;
+    private SolverWorkspace workspace;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        distributors = new ProductDistributor[PROBLEMS_COUNT];
+        for (int k = 0; k < PROBLEMS_COUNT; k++) {
+            TransportInstance instance = TransportInstance.generate(size, distribution, SEED + k);
+            distributors[k] = new ProductDistributor(
+                    TransportProblem.fromCostArray(instance.getCostArray(), instance.toParticipants()));
+        }
+        workspace = new SolverWorkspace();
+    }
+
+    @Benchmark
+    public DistributionPlan distribute() {
+        return nextDistributor().distribute();
+    }
+
+    @Benchmark
+    public DistributionPlan distributeWithWorkspace() {
+        return nextDistributor().distribute(workspace);
+    }
+
+    private ProductDistributor nextDistributor() {
+        next = (next + 1) % PROBLEMS_COUNT;
+        return distributors[next];
+    }
+}
@@ -1,5 +1,7 @@
 package com.nure;
 
+import com.nure.tsolver.PrintingSolverListener;
+import com.nure.tsolver.SolverOptions;
 import com.nure.tsolver.model.*;
 import com.nure.tsolver.ProductDistributor;
 
@@ -21,11 +23,14 @@ public class App {
         DistributionParticipants distributionParticipants = new DistributionParticipants(consumers, suppliers);
         int[][] matrix = {
                 {5, 15, 3, 6, 10},
-                {23, 8, 13, 27, 12, 11},
+                {23, 8, 13, 27, 12},
                 {30, 1, 5, 24, 25},
                 {8, 26, 7, 28, 9}
         };
-        ProductDistributor productDistributor = new ProductDistributor(matrix, distributionParticipants);
+        SolverOptions options = SolverOptions.builder()
+                .listener(new PrintingSolverListener())
+                .build();
+        ProductDistributor productDistributor = new ProductDistributor(matrix, distributionParticipants, options);
         DistributionPlan plan = productDistributor.distribute();
         System.out.println(plan);
     }
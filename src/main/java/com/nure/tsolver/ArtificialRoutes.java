@@ -0,0 +1,78 @@
+package com.nure.tsolver;
+
+import com.nure.tsolver.model.CompactPlan;
+
+import java.util.Arrays;
+
+/**
+ * Artificial routes of sparse plan. When allowed routes can not take all supply, remaining supply is placed on
+ * artificial routes with big tariff. Tariff is bigger than cost difference of any cycle of real routes, so
+ * potential method moves products out of artificial routes whenever problem has feasible plan.
+ */
+final class ArtificialRoutes {
+
+    private ArtificialRoutes() {
+    }
+
+    /**
+     * Places remaining supply to remaining demand by north-west corner algorithm on new artificial routes. Plan
+     * must not have routes between rows and columns that still have supply and demand.
+     *
+     * @param plan   plan with products placed on allowed routes.
+     * @param supply remaining supply of every row, becomes zero.
+     * @param demand remaining demand of every column, becomes zero.
+     * @param basic  whether new routes are added to basis.
+     * @return new plan with artificial routes or the same plan if nothing remained.
+     */
+    static CompactPlan place(CompactPlan plan, int[] supply, int[] demand, boolean basic) {
+        int[] rows = new int[supply.length + demand.length];
+        int[] columns = new int[rows.length];
+        int[] flows = new int[rows.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (true) {
+            while (i < supply.length && supply[i] == 0)
+                i++;
+            while (j < demand.length && demand[j] == 0)
+                j++;
+            if (i == supply.length || j == demand.length)
+                break;
+            int amount = Math.min(supply[i], demand[j]);
+            rows[count] = i;
+            columns[count] = j;
+            flows[count++] = amount;
+            supply[i] -= amount;
+            demand[j] -= amount;
+        }
+        if (count == 0)
+            return plan;
+
+        CompactPlan artificialPlan = plan.withArtificialRoutes(Arrays.copyOf(rows, count),
+                Arrays.copyOf(columns, count), Arrays.copyOf(flows, count), bigTariff(plan, count));
+        if (basic) {
+            for (int k = 0; k < count; k++)
+                artificialPlan.setBasic(artificialPlan.index(rows[k], columns[k]), flows[k]);
+        }
+        return artificialPlan;
+    }
+
+    /**
+     * Calculates tariff of artificial routes. Cycle of real routes has at most {@code height + width} cells, so
+     * its cost difference is less than {@code (height + width) * (maxTariff - minTariff + 1)}.
+     */
+    private static int bigTariff(CompactPlan plan, int count) {
+        int minTariff = 0;
+        int maxTariff = 0;
+        for (int index = 0; index < plan.size(); index++) {
+            if (plan.isArtificial(index))
+                continue;
+            minTariff = Math.min(minTariff, plan.getTariff(index));
+            maxTariff = Math.max(maxTariff, plan.getTariff(index));
+        }
+        long tariff = maxTariff + (long) (plan.getHeight() + plan.getWidth()) * (maxTariff - (long) minTariff + 1);
+        if ((count + 2) * tariff > Integer.MAX_VALUE / 2)
+            throw new IllegalArgumentException("Tariffs are too big for artificial routes of sparse plan");
+        return (int) tariff;
+    }
+}
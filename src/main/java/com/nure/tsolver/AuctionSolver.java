@@ -0,0 +1,437 @@
+package com.nure.tsolver;
+
+import com.nure.tsolver.model.CompactPlan;
+import com.nure.tsolver.model.DistributionPlan;
+import com.nure.tsolver.model.TransportProblem;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Auction engine with epsilon scaling. Every product unit of consumer is an object with its own price, suppliers
+ * bid for blocks of the cheapest units of consumer that gives them the best value, that is tariff plus price is
+ * minimal. Bid raises price of units by the difference between the best and the second best value plus epsilon,
+ * units with lower price are taken away from their previous owners, so every bought unit is at most epsilon worse
+ * than the best unit for its supplier.
+ * <p>
+ * Tariffs are multiplied by node count plus one. Phase ends when all supply is bought, at this moment plan cost is
+ * not bigger than optimal cost plus total supply multiplied by epsilon and divided by this scale. Every next phase
+ * divides epsilon by scaling factor and starts with prices of previous phase, the last phase with epsilon one gives
+ * optimal plan. Cells with products are added to basis by cycle moves at the end, as in {@code CostScalingSolver}.
+ * <p>
+ * With parallel pricing in options suppliers bid in rounds: all active suppliers compute bids on fork/join pool
+ * from the same prices, then consumers accept bids in parallel and give back supply of outbid suppliers by atomic
+ * updates. Otherwise suppliers bid one by one and every bid is accepted at once. Listener gets only
+ * {@code onFinish}.
+ */
+public class AuctionSolver implements TransportSolver {
+    private static final int SCALING_FACTOR = 4;
+    private static final int MIN_BIDS_PER_TASK = 16;
+    private static final long NO_VALUE = Long.MIN_VALUE;
+
+    private final SolverListener listener;
+    private final ForkJoinPool pool;
+
+    private CompactPlan plan;
+    private int height;
+    private int width;
+    private long costScale;
+    private int[] supply;
+    private int[] demand;
+
+    private ConsumerUnits[] consumers;
+    private AtomicIntegerArray remainders;
+    private int[] bidColumns;
+    private int[] bidAmounts;
+    private long[] bidPrices;
+    private long epsilon;
+    private long priceLimit;
+    private int bids;
+
+    private int[] queue;
+    private boolean[] queued;
+    private int queueHead;
+    private int queueSize;
+
+    /**
+     * Constructs engine without listener and parallel bidding.
+     */
+    public AuctionSolver() {
+        this(SolverListener.NO_OP, null);
+    }
+
+    /**
+     * Constructs engine with listener and parallel bidding from solver options.
+     *
+     * @param options solver options.
+     */
+    public AuctionSolver(SolverOptions options) {
+        this(options.getListener(), options.isParallelPricing() ? options.getPricingPool() : null);
+    }
+
+    private AuctionSolver(SolverListener listener, ForkJoinPool pool) {
+        this.listener = listener;
+        this.pool = pool;
+    }
+
+    /**
+     * Finds optimal plan by auction.
+     *
+     * @throws IllegalArgumentException if sparse plan has no feasible distribution by its allowed routes or costs
+     *                                  may overflow long.
+     */
+    @Override
+    public DistributionPlan solve(TransportProblem problem) {
+        plan = problem.newPlan();
+        CostBounds.checkTotalCost(plan, problem.getTotalSupply(), 1);
+        CostBounds.checkScaledTariffs(plan);
+        init(problem);
+
+        long maxTariff = Math.max(1, CostBounds.maxAbsTariff(plan));
+        epsilon = maxTariff * costScale;
+        priceLimit = priceLimit(epsilon);
+        do {
+            epsilon = Math.max(1, epsilon / SCALING_FACTOR);
+            runPhase();
+        } while (epsilon > 1);
+
+        for (int column = 0; column < width; column++)
+            consumers[column].addFlows(plan, column);
+        CycleMover.addFlowsToBasis(plan);
+        DistributionPlan distributionPlan = new DistributionPlan(plan, problem.newParticipants());
+        distributionPlan.setIterationsCount(bids);
+        listener.onFinish(distributionPlan, new IterationMetrics(distributionPlan.countMoney()));
+        return distributionPlan;
+    }
+
+    private void init(TransportProblem problem) {
+        height = plan.getHeight();
+        width = plan.getWidth();
+        costScale = height + width + 1;
+        supply = new int[height];
+        demand = new int[width];
+        for (int i = 0; i < height; i++)
+            supply[i] = problem.getSupply(i);
+        for (int j = 0; j < width; j++)
+            demand[j] = problem.getDemand(j);
+
+        consumers = new ConsumerUnits[width];
+        for (int j = 0; j < width; j++)
+            consumers[j] = new ConsumerUnits();
+        remainders = new AtomicIntegerArray(height);
+        bidColumns = new int[height];
+        bidAmounts = new int[height];
+        bidPrices = new long[height];
+        queue = new int[height];
+        queued = new boolean[height];
+    }
+
+    /**
+     * Gets limit of price rise in one phase. Dense plan always has feasible distribution, so its prices are not
+     * limited. Feasible sparse plan does not raise price of units more than by cost of path through all nodes with
+     * maximal tariff, while prices of infeasible plan grow without limit.
+     */
+    private long priceLimit(long maxScaledTariff) {
+        long pathLength = 4L * costScale;
+        if (!plan.isSparse() || maxScaledTariff > Long.MAX_VALUE / pathLength)
+            return Long.MAX_VALUE;
+        return pathLength * maxScaledTariff;
+    }
+
+    /**
+     * Sells all units again with prices of previous phase as start prices, so every bought unit satisfies
+     * current epsilon.
+     */
+    private void runPhase() {
+        for (int j = 0; j < width; j++)
+            consumers[j].reset(demand[j]);
+        for (int i = 0; i < height; i++)
+            remainders.set(i, supply[i]);
+        if (pool != null)
+            bidInRounds();
+        else
+            bidOneByOne();
+    }
+
+    private void bidOneByOne() {
+        queueHead = 0;
+        queueSize = 0;
+        for (int i = 0; i < height; i++) {
+            if (supply[i] > 0)
+                enqueue(i);
+        }
+        while (queueSize > 0) {
+            int row = queue[queueHead];
+            queueHead = queueHead + 1 == queue.length ? 0 : queueHead + 1;
+            queueSize--;
+            queued[row] = false;
+            bid(row);
+            bids++;
+            accept(row);
+            if (remainders.get(row) > 0)
+                enqueue(row);
+        }
+    }
+
+    /**
+     * Runs rounds of simultaneous bids until all supply is bought. Bids of round are grouped by consumer, every
+     * consumer accepts its bids from the highest price.
+     */
+    private void bidInRounds() {
+        int[] bidders = new int[height];
+        int[] sortedBidders = new int[height];
+        int[] starts = new int[width + 1];
+        int[] positions = new int[width];
+        int[] biddenColumns = new int[width];
+        while (true) {
+            int biddersCount = 0;
+            for (int i = 0; i < height; i++) {
+                if (remainders.get(i) > 0)
+                    bidders[biddersCount++] = i;
+            }
+            if (biddersCount == 0)
+                return;
+            bids += biddersCount;
+            forEachParallel(biddersCount, k -> bid(bidders[k]));
+
+            Arrays.fill(starts, 0);
+            for (int k = 0; k < biddersCount; k++)
+                starts[bidColumns[bidders[k]] + 1]++;
+            int columnsCount = 0;
+            for (int j = 0; j < width; j++) {
+                if (starts[j + 1] > 0)
+                    biddenColumns[columnsCount++] = j;
+                starts[j + 1] += starts[j];
+                positions[j] = starts[j];
+            }
+            for (int k = 0; k < biddersCount; k++) {
+                int row = bidders[k];
+                int column = bidColumns[row];
+                int position = positions[column]++;
+                while (position > starts[column] && bidPrices[sortedBidders[position - 1]] < bidPrices[row]) {
+                    sortedBidders[position] = sortedBidders[position - 1];
+                    position--;
+                }
+                sortedBidders[position] = row;
+            }
+            forEachParallel(columnsCount, c -> {
+                int column = biddenColumns[c];
+                for (int k = starts[column]; k < starts[column + 1]; k++)
+                    accept(sortedBidders[k]);
+            });
+        }
+    }
+
+    /**
+     * Finds the best consumer of supplier and stores its bid: cheapest units of consumer, but not more than
+     * remaining supply, and price that makes them epsilon worse than the next best units.
+     */
+    private void bid(int row) {
+        int remainder = remainders.get(row);
+        long best = NO_VALUE;
+        long secondBest = NO_VALUE;
+        int bestColumn = -1;
+        int rowStart = plan.rowStart(row);
+        int rowEnd = plan.rowEnd(row);
+        for (int index = rowStart; index < rowEnd; index++) {
+            int column = plan.columnOf(index, rowStart);
+            if (demand[column] == 0)
+                continue;
+            long value = -plan.getTariff(index) * costScale - consumers[column].minPrice();
+            if (value > best) {
+                secondBest = best;
+                best = value;
+                bestColumn = column;
+            } else if (value > secondBest) {
+                secondBest = value;
+            }
+        }
+        if (bestColumn < 0)
+            throw new IllegalArgumentException("Supply can not be delivered to consumers by allowed routes");
+
+        ConsumerUnits units = consumers[bestColumn];
+        int amount = Math.min(remainder, units.minAmount());
+        long alternative = secondBest;
+        if (amount < units.minAmount()) {
+            alternative = best;
+        } else if (units.hasNextPrice()) {
+            alternative = Math.max(alternative, best + units.minPrice() - units.nextPrice());
+        }
+        bidColumns[row] = bestColumn;
+        bidAmounts[row] = amount;
+        bidPrices[row] = units.minPrice() + (alternative == NO_VALUE ? epsilon : best - alternative + epsilon);
+    }
+
+    /**
+     * Gives supplier units of its bid that are cheaper than bid price, supply of the bid that was not accepted
+     * stays with supplier.
+     */
+    private void accept(int row) {
+        ConsumerUnits units = consumers[bidColumns[row]];
+        long price = bidPrices[row];
+        if (price - units.startPrice > priceLimit)
+            throw new IllegalArgumentException("Supply can not be delivered to consumers by allowed routes");
+        int amount = bidAmounts[row];
+        int accepted = 0;
+        if (units.free > 0 && units.startPrice < price) {
+            accepted = Math.min(units.free, amount);
+            units.free -= accepted;
+        }
+        while (accepted < amount && units.size > 0 && units.prices[0] < price) {
+            int taken = Math.min(units.amounts[0], amount - accepted);
+            int owner = units.owners[0];
+            units.takeCheapest(taken);
+            remainders.addAndGet(owner, taken);
+            if (pool == null)
+                enqueue(owner);
+            accepted += taken;
+        }
+        if (accepted > 0) {
+            units.add(price, row, accepted);
+            remainders.addAndGet(row, -accepted);
+        }
+    }
+
+    private void forEachParallel(int count, IntConsumer action) {
+        pool.invoke(new RangeTask(0, count, Math.max(MIN_BIDS_PER_TASK, count / (4 * pool.getParallelism())), action));
+    }
+
+    private void enqueue(int row) {
+        if (queued[row])
+            return;
+        queued[row] = true;
+        int tail = queueHead + queueSize;
+        queue[tail >= queue.length ? tail - queue.length : tail] = row;
+        queueSize++;
+    }
+
+    /**
+     * Product units of one consumer. Units that nobody bought in current phase have start price, bought units are
+     * kept in blocks of one owner and one price in min-heap by price.
+     */
+    private static final class ConsumerUnits {
+        private long startPrice;
+        private int free;
+        private long[] prices = new long[4];
+        private int[] owners = new int[4];
+        private int[] amounts = new int[4];
+        private int size;
+
+        /**
+         * Makes all units free with price of the cheapest unit of previous phase.
+         */
+        void reset(int demand) {
+            if (free == 0 && size > 0)
+                startPrice = prices[0];
+            free = demand;
+            size = 0;
+        }
+
+        long minPrice() {
+            return free > 0 ? startPrice : prices[0];
+        }
+
+        int minAmount() {
+            return free > 0 ? free : amounts[0];
+        }
+
+        boolean hasNextPrice() {
+            return free > 0 ? size > 0 : size > 1;
+        }
+
+        /**
+         * Gets price of the cheapest units after units with minimal price.
+         */
+        long nextPrice() {
+            if (free > 0)
+                return prices[0];
+            return size == 2 ? prices[1] : Math.min(prices[1], prices[2]);
+        }
+
+        void add(long price, int owner, int amount) {
+            if (size == prices.length) {
+                prices = Arrays.copyOf(prices, size * 2);
+                owners = Arrays.copyOf(owners, size * 2);
+                amounts = Arrays.copyOf(amounts, size * 2);
+            }
+            int position = size++;
+            while (position > 0) {
+                int parent = (position - 1) >>> 1;
+                if (prices[parent] <= price)
+                    break;
+                set(position, prices[parent], owners[parent], amounts[parent]);
+                position = parent;
+            }
+            set(position, price, owner, amount);
+        }
+
+        /**
+         * Takes specified amount from the cheapest block, empty block is removed.
+         */
+        void takeCheapest(int amount) {
+            amounts[0] -= amount;
+            if (amounts[0] > 0)
+                return;
+            size--;
+            long price = prices[size];
+            int owner = owners[size];
+            int blockAmount = amounts[size];
+            int position = 0;
+            while (true) {
+                int child = 2 * position + 1;
+                if (child >= size)
+                    break;
+                if (child + 1 < size && prices[child + 1] < prices[child])
+                    child++;
+                if (prices[child] >= price)
+                    break;
+                set(position, prices[child], owners[child], amounts[child]);
+                position = child;
+            }
+            if (size > 0)
+                set(position, price, owner, blockAmount);
+        }
+
+        void addFlows(CompactPlan plan, int column) {
+            for (int k = 0; k < size; k++) {
+                int index = plan.index(owners[k], column);
+                plan.setFlow(index, plan.getFlow(index) + amounts[k]);
+            }
+        }
+
+        private void set(int position, long price, int owner, int amount) {
+            prices[position] = price;
+            owners[position] = owner;
+            amounts[position] = amount;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static class RangeTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int itemsPerTask;
+        private final IntConsumer action;
+
+        RangeTask(int from, int to, int itemsPerTask, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.itemsPerTask = itemsPerTask;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= itemsPerTask) {
+                for (int k = from; k < to; k++)
+                    action.accept(k);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, middle, itemsPerTask, action), new RangeTask(middle, to, itemsPerTask, action));
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package com.nure.tsolver;
+
+import com.nure.tsolver.model.CompactPlan;
+
+import java.util.Arrays;
+
+/**
+ * Spanning tree of basic cells of distribution plan. Every supplier row and every consumer column is a tree node,
+ * every basic cell is an edge between its row node and column node. Row {@code i} is node {@code i}, column
+ * {@code j} is node {@code height + j}.
+ * <p>
+ * Tree keeps adjacency lists per node together with parent and depth of every node, so potentials can be
+ * calculated by one traversal over basic cells and after pivot only the re-hung subtree has to be updated.
+ * If basis is degenerate and does not connect all rows and columns, every component has its own root with
+ * zero potential.
+ */
+public class BasisTree {
+    static final int NO_NODE = -1;
+    private static final int INITIAL_ADJACENCY_CAPACITY = 4;
+
+    private CompactPlan plan;
+    private final int height;
+    private final int nodesCount;
+
+    private final int[][] adjacency;
+    private final int[] degree;
+    private final int[] parent;
+    private final int[] depth;
+    private final long[] potentials;
+    private final int[] queue;
+    private int[] components;
+    private int potentialsVersion;
+    private int shiftedNodesCount;
+
+    /**
+     * Constructs tree from all basic cells of distribution plan and calculates potentials.
+     *
+     * @param plan compact distribution plan with filled basis.
+     */
+    public BasisTree(CompactPlan plan) {
+        this.plan = plan;
+        this.height = plan.getHeight();
+        this.nodesCount = plan.getHeight() + plan.getWidth();
+        this.adjacency = new int[nodesCount][];
+        this.degree = new int[nodesCount];
+        this.parent = new int[nodesCount];
+        this.depth = new int[nodesCount];
+        this.potentials = new long[nodesCount];
+        this.queue = new int[nodesCount];
+        addBasicCells();
+    }
+
+    /**
+     * Rebuilds tree from basic cells of other plan with the same height and width, so {@code SolverWorkspace}
+     * reuses node arrays and adjacency lists of previous solve.
+     *
+     * @param plan compact distribution plan with filled basis.
+     * @return false if plan has other height or width and tree was not changed.
+     */
+    boolean reset(CompactPlan plan) {
+        if (plan.getHeight() != height || plan.getHeight() + plan.getWidth() != nodesCount)
+            return false;
+        this.plan = plan;
+        Arrays.fill(degree, 0);
+        addBasicCells();
+        return true;
+    }
+
+    private void addBasicCells() {
+        for (int index = plan.nextBasic(0); index >= 0; index = plan.nextBasic(index + 1)) {
+            addEdge(rowNode(plan.rowOf(index)), columnNode(plan.columnOf(index)));
+        }
+        computePotentials();
+    }
+
+    /**
+     * Calculates potentials of all nodes by breadth-first traversal of every tree component. Root of each
+     * component gets zero potential, any other node gets tariff of the cell to its parent minus parent potential.
+     */
+    public void computePotentials() {
+        Arrays.fill(parent, NO_NODE);
+        Arrays.fill(depth, NO_NODE);
+        for (int root = 0; root < nodesCount; root++) {
+            if (depth[root] != NO_NODE)
+                continue;
+            depth[root] = 0;
+            potentials[root] = 0;
+            hang(root, true, 0);
+        }
+        potentialsVersion++;
+        shiftedNodesCount = NO_NODE;
+    }
+
+    /**
+     * Replaces leaving basic cell by entering one. Subtree that was cut off by leaving cell is hung on the
+     * entering cell, and only its nodes get new parent, depth and potential.
+     *
+     * @param enterRow    row of cell that enters basis.
+     * @param enterColumn column of cell that enters basis.
+     * @param leaveRow    row of cell that leaves basis.
+     * @param leaveColumn column of cell that leaves basis.
+     */
+    public void pivot(int enterRow, int enterColumn, int leaveRow, int leaveColumn) {
+        int leaveFrom = rowNode(leaveRow);
+        int leaveTo = columnNode(leaveColumn);
+        int cutRoot = parent[leaveFrom] == leaveTo ? leaveFrom : leaveTo;
+        removeEdge(leaveFrom, leaveTo);
+
+        int enterFrom = rowNode(enterRow);
+        int enterTo = columnNode(enterColumn);
+        addEdge(enterFrom, enterTo);
+        if (isInSubtree(enterFrom, cutRoot))
+            rehang(enterFrom, enterTo, enterRow, enterColumn);
+        else
+            rehang(enterTo, enterFrom, enterRow, enterColumn);
+    }
+
+    /**
+     * Adds cell that connects two different tree components to basis without any leaving cell. Component of
+     * cell column is hung on cell row.
+     *
+     * @param enterRow    row of cell that enters basis.
+     * @param enterColumn column of cell that enters basis.
+     */
+    public void join(int enterRow, int enterColumn) {
+        addEdge(rowNode(enterRow), columnNode(enterColumn));
+        rehang(columnNode(enterColumn), rowNode(enterRow), enterRow, enterColumn);
+    }
+
+    /**
+     * Makes degenerate basis full: empty cells that connect different tree components become basic with zero
+     * fullness, until basis has {@code height + width - 1} cells or routes of sparse plan can not connect the rest.
+     * After that entering cells always close cycles and optimization never has to join components.
+     *
+     * @return count of cells added to basis.
+     */
+    public int connectComponents() {
+        if (components == null)
+            components = new int[nodesCount];
+        int componentsCount = 0;
+        for (int node = 0; node < nodesCount; node++) {
+            components[node] = node;
+            if (parent[node] == NO_NODE)
+                componentsCount++;
+        }
+        for (int node = 0; node < nodesCount; node++) {
+            if (parent[node] != NO_NODE)
+                components[findComponent(components, node)] = findComponent(components, parent[node]);
+        }
+        int added = 0;
+        for (int i = 0; i < height && added < componentsCount - 1; i++) {
+            int rowEnd = plan.rowEnd(i);
+            for (int index = plan.rowStart(i); index < rowEnd; index++) {
+                int column = plan.columnOf(index);
+                int rowComponent = findComponent(components, rowNode(i));
+                int columnComponent = findComponent(components, columnNode(column));
+                if (rowComponent == columnComponent)
+                    continue;
+                components[columnComponent] = rowComponent;
+                plan.setBasic(index, 0);
+                join(i, column);
+                added++;
+            }
+        }
+        return added;
+    }
+
+    private static int findComponent(int[] components, int node) {
+        while (components[node] != node) {
+            components[node] = components[components[node]];
+            node = components[node];
+        }
+        return node;
+    }
+
+    /**
+     * Gets potential of supplier row.
+     *
+     * @param row row index, starting from 0.
+     * @return row potential.
+     */
+    public long getRowPotential(int row) {
+        return potentials[rowNode(row)];
+    }
+
+    /**
+     * Gets potential of consumer column.
+     *
+     * @param column column index, starting from 0.
+     * @return column potential.
+     */
+    public long getColumnPotential(int column) {
+        return potentials[columnNode(column)];
+    }
+
+    /**
+     * Hangs subtree containing {@code node} on {@code newParent} through entering cell, updates parent, depth
+     * and potentials of all subtree nodes. Rows and columns of subtree are shifted by the same value with
+     * opposite signs, so basic cells inside subtree keep their potential sums.
+     */
+    private void rehang(int node, int newParent, int enterRow, int enterColumn) {
+        int tariff = plan.getTariff(plan.index(enterRow, enterColumn));
+        long shift = tariff - potentials[newParent] - potentials[node];
+        long rowShift = isRowNode(node) ? shift : -shift;
+
+        parent[node] = newParent;
+        depth[node] = depth[newParent] + 1;
+        potentials[node] += isRowNode(node) ? rowShift : -rowShift;
+        shiftedNodesCount = hang(node, false, rowShift);
+        potentialsVersion++;
+    }
+
+    /**
+     * Breadth-first traversal from {@code start} away from its parent. Every visited node gets parent, depth and
+     * its potential shifted by {@code rowShift} (rows) or {@code -rowShift} (columns). When potentials are
+     * calculated from scratch, potential of child is derived from its parent instead. Visited nodes stay in queue
+     * until next traversal.
+     *
+     * @return count of visited nodes.
+     */
+    private int hang(int start, boolean fromScratch, long rowShift) {
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        while (head < tail) {
+            int node = queue[head++];
+            int[] neighbours = adjacency[node];
+            for (int k = 0; k < degree[node]; k++) {
+                int next = neighbours[k];
+                if (next == parent[node])
+                    continue;
+                parent[next] = node;
+                depth[next] = depth[node] + 1;
+                if (fromScratch)
+                    potentials[next] = edgeTariff(node, next) - potentials[node];
+                else
+                    potentials[next] += isRowNode(next) ? rowShift : -rowShift;
+                queue[tail++] = next;
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Checks whether {@code node} lies in subtree rooted at {@code root} by walking up parent links.
+     */
+    private boolean isInSubtree(int node, int root) {
+        while (node != NO_NODE && depth[node] > depth[root])
+            node = parent[node];
+        return node == root;
+    }
+
+    private int edgeTariff(int first, int second) {
+        return isRowNode(first)
+                ? plan.getTariff(plan.index(first, second - height))
+                : plan.getTariff(plan.index(second, first - height));
+    }
+
+    private void addEdge(int first, int second) {
+        append(first, second);
+        append(second, first);
+    }
+
+    private void removeEdge(int first, int second) {
+        remove(first, second);
+        remove(second, first);
+    }
+
+    private void append(int node, int neighbour) {
+        if (adjacency[node] == null)
+            adjacency[node] = new int[INITIAL_ADJACENCY_CAPACITY];
+        else if (degree[node] == adjacency[node].length)
+            adjacency[node] = Arrays.copyOf(adjacency[node], degree[node] * 2);
+        adjacency[node][degree[node]++] = neighbour;
+    }
+
+    private void remove(int node, int neighbour) {
+        int[] neighbours = adjacency[node];
+        for (int k = 0; k < degree[node]; k++) {
+            if (neighbours[k] == neighbour) {
+                neighbours[k] = neighbours[--degree[node]];
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gets parent of tree node.
+     *
+     * @param node tree node.
+     * @return parent node or {@code NO_NODE} for component root.
+     */
+    int getParent(int node) {
+        return parent[node];
+    }
+
+    /**
+     * Gets depth of tree node, root of each component has zero depth.
+     *
+     * @param node tree node.
+     * @return node depth.
+     */
+    int getDepth(int node) {
+        return depth[node];
+    }
+
+    boolean isRowNode(int node) {
+        return node < height;
+    }
+
+    int rowNode(int row) {
+        return row;
+    }
+
+    int columnNode(int column) {
+        return height + column;
+    }
+
+    /**
+     * Gets compact plan index of cell that links node with its parent.
+     */
+    int parentCell(int node) {
+        return isRowNode(node)
+                ? plan.index(node, parent[node] - height)
+                : plan.index(parent[node], node - height);
+    }
+
+    int nodesCount() {
+        return nodesCount;
+    }
+
+    /**
+     * Gets count of potential changes. It grows on every pivot, join and calculation of all potentials, so
+     * pricing rule that keeps potential sums between iterations knows whether it missed a change.
+     */
+    int getPotentialsVersion() {
+        return potentialsVersion;
+    }
+
+    /**
+     * Gets count of nodes whose potentials were shifted by the last change.
+     *
+     * @return node count or {@code NO_NODE} if all potentials were calculated from scratch.
+     */
+    int getShiftedNodesCount() {
+        return shiftedNodesCount;
+    }
+
+    /**
+     * Gets node shifted by the last change.
+     *
+     * @param k number of node, from 0 to {@code getShiftedNodesCount()} exclusive.
+     * @return tree node.
+     */
+    int getShiftedNode(int k) {
+        return queue[k];
+    }
+}
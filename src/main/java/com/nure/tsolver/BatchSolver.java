@@ -0,0 +1,109 @@
+package com.nure.tsolver;
+
+import com.nure.tsolver.model.DistributionPlan;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Solves many independent transportation problems concurrently. Every problem is solved by its own
+ * {@code ProductDistributor}. Distributors may share one immutable {@code TransportProblem}, and every solve builds
+ * its own plans, basis tree and pricing rule, so solves share no mutable state. Listener of distributor options is called
+ * from executor threads and must be thread safe if it is shared by several distributors.
+ */
+public class BatchSolver implements AutoCloseable {
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+
+    /**
+     * Constructs solver with default executor, see {@code newDefaultExecutor()}. Executor is shut down by
+     * {@code close()}.
+     */
+    public BatchSolver() {
+        this(newDefaultExecutor(), true);
+    }
+
+    /**
+     * Constructs solver with specified executor. Executor is not shut down by {@code close()}.
+     *
+     * @param executor executor that runs solves.
+     */
+    public BatchSolver(ExecutorService executor) {
+        this(executor, false);
+    }
+
+    private BatchSolver(ExecutorService executor, boolean ownsExecutor) {
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * Creates executor with virtual thread per task when it is supported by running JDK, otherwise fixed pool with
+     * thread per available processor.
+     *
+     * @return new executor.
+     */
+    public static ExecutorService newDefaultExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    /**
+     * Submits one problem.
+     *
+     * @param distributor distributor of problem.
+     * @return future of optimal plan, completed exceptionally if solve failed.
+     */
+    public CompletableFuture<DistributionPlan> submit(ProductDistributor distributor) {
+        return CompletableFuture.supplyAsync(distributor::distribute, executor);
+    }
+
+    /**
+     * Submits all problems of collection.
+     *
+     * @param distributors distributors of problems.
+     * @return futures of optimal plans in collection order.
+     */
+    public List<CompletableFuture<DistributionPlan>> submitAll(Collection<ProductDistributor> distributors) {
+        return submitAll(distributors.stream());
+    }
+
+    /**
+     * Submits all problems of stream. Stream is consumed in the calling thread.
+     *
+     * @param distributors distributors of problems.
+     * @return futures of optimal plans in stream order.
+     */
+    public List<CompletableFuture<DistributionPlan>> submitAll(Stream<ProductDistributor> distributors) {
+        return distributors.map(this::submit).collect(Collectors.toList());
+    }
+
+    /**
+     * Solves all problems and waits for them.
+     *
+     * @param distributors distributors of problems.
+     * @return optimal plans in collection order.
+     * @throws java.util.concurrent.CompletionException if any solve failed.
+     */
+    public List<DistributionPlan> solveAll(Collection<ProductDistributor> distributors) {
+        List<CompletableFuture<DistributionPlan>> futures = submitAll(distributors);
+        return futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+    }
+
+    /**
+     * Shuts down executor if it was created by this solver. Already submitted solves are completed.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor)
+            executor.shutdown();
+    }
+}
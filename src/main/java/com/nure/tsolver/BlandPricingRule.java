@@ -0,0 +1,34 @@
+package com.nure.tsolver;
+
+import com.nure.tsolver.model.CompactPlan;
+
+/**
+ * Smallest index pricing: the first empty cell in plan order with positive potential sum enters basis. Together
+ * with smallest index choice of leaving cell among cells with equal fullness it never returns to basis it already
+ * visited, so degenerate pivots can not cycle. Rule usually needs much more iterations than Dantzig rule.
+ */
+public class BlandPricingRule implements PricingRule {
+
+    /**
+     * Finds empty cell with positive potential sum and the smallest index. Potential sums of scanned cells are
+     * stored in plan.
+     */
+    @Override
+    public int findEnteringCell(CompactPlan plan, BasisTree basisTree) {
+        for (int i = 0; i < plan.getHeight(); i++) {
+            long rowPotential = basisTree.getRowPotential(i);
+            int rowStart = plan.rowStart(i);
+            int rowEnd = plan.rowEnd(i);
+            for (int index = rowStart; index < rowEnd; index++) {
+                if (plan.isBasic(index))
+                    continue;
+                long potentialSum = basisTree.getColumnPotential(plan.columnOf(index, rowStart)) + rowPotential
+                        - plan.getTariff(index);
+                plan.setPotentialSum(index, potentialSum);
+                if (potentialSum > 0)
+                    return index;
+            }
+        }
+        return CompactPlan.NO_CELL;
+    }
+}
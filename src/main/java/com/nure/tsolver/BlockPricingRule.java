@@ -0,0 +1,60 @@
+package com.nure.tsolver;
+
+import com.nure.tsolver.model.CompactPlan;
+
+/**
+ * Partial pricing: plan rows are priced by blocks of fixed size, block window rotates over rows between
+ * iterations. Cell with the biggest potential sum of first block that has positive sum enters basis, so usually
+ * only a small part of plan is scanned per iteration. Whole plan is scanned only to prove optimality.
+ */
+public class BlockPricingRule implements PricingRule {
+    private final int blockSize;
+    private int nextRow;
+
+    /**
+     * Constructs rule with specified block size.
+     *
+     * @param blockSize count of rows priced in one block, must be positive.
+     */
+    public BlockPricingRule(int blockSize) {
+        if (blockSize <= 0)
+            throw new IllegalArgumentException("Block size must be positive integer");
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public void reset() {
+        nextRow = 0;
+    }
+
+    @Override
+    public int findEnteringCell(CompactPlan plan, BasisTree basisTree) {
+        int height = plan.getHeight();
+        int scannedRows = 0;
+        while (scannedRows < height) {
+            long maxElementSum = 0;
+            int maxCell = CompactPlan.NO_CELL;
+            for (int k = 0; k < blockSize && scannedRows < height; k++, scannedRows++) {
+                int i = nextRow;
+                nextRow = nextRow + 1 == height ? 0 : nextRow + 1;
+                long rowPotential = basisTree.getRowPotential(i);
+                int rowStart = plan.rowStart(i);
+                int rowEnd = plan.rowEnd(i);
+                for (int index = rowStart; index < rowEnd; index++) {
+                    if (plan.isBasic(index))
+                        continue;
+                    long potentialSum = basisTree.getColumnPotential(plan.columnOf(index, rowStart)) + rowPotential
+                            - plan.getTariff(index);
+                    plan.setPotentialSum(index, potentialSum);
+                    if (potentialSum > maxElementSum) {
+                        maxElementSum = potentialSum;
+                        maxCell = index;
+                    }
+                }
+            }
+            if (maxCell != CompactPlan.NO_CELL)
+                return maxCell;
+        }
+        return CompactPlan.NO_CELL;
+    }
+}
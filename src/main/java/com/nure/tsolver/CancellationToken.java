@@ -0,0 +1,21 @@
+package com.nure.tsolver;
+
+/**
+ * Token for cooperative cancellation of solve, usually cancelled from other thread. Potential method checks token
+ * on every iteration and returns plan of the last finished iteration with {@code SolveStatus.CANCELLED}. One
+ * token may be shared by many solves, for example all solves of a batch.
+ */
+public class CancellationToken {
+    private volatile boolean cancelled;
+
+    /**
+     * Requests all solves that use this token to stop.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
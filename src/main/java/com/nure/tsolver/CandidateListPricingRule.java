@@ -0,0 +1,126 @@
+package com.nure.tsolver;
+
+import com.nure.tsolver.model.CompactPlan;
+
+/**
+ * Candidate list pricing: full scan keeps cells with the biggest positive potential sums in list of limited size.
+ * Next iterations re-price only list cells with actual potentials and take the best of them, cells that lost
+ * positive sum are dropped. New full scan is done only when list becomes empty.
+ */
+public class CandidateListPricingRule implements PricingRule {
+    private final int[] candidates;
+    private int candidatesCount;
+
+    /**
+     * Constructs rule with specified candidate list size.
+     *
+     * @param listSize max count of kept candidate cells, must be positive.
+     */
+    public CandidateListPricingRule(int listSize) {
+        if (listSize <= 0)
+            throw new IllegalArgumentException("Candidate list size must be positive integer");
+        this.candidates = new int[listSize];
+    }
+
+    @Override
+    public void reset() {
+        candidatesCount = 0;
+    }
+
+    @Override
+    public int findEnteringCell(CompactPlan plan, BasisTree basisTree) {
+        int maxCell = repriceCandidates(plan, basisTree);
+        if (maxCell != CompactPlan.NO_CELL)
+            return maxCell;
+        rebuildCandidates(plan, basisTree);
+        return repriceCandidates(plan, basisTree);
+    }
+
+    /**
+     * Re-prices candidates with actual potentials, removes basic cells and cells without positive sum.
+     *
+     * @return best candidate or {@code CompactPlan.NO_CELL} if list became empty.
+     */
+    private int repriceCandidates(CompactPlan plan, BasisTree basisTree) {
+        long maxElementSum = 0;
+        int maxCell = CompactPlan.NO_CELL;
+        int kept = 0;
+        for (int k = 0; k < candidatesCount; k++) {
+            int index = candidates[k];
+            if (plan.isBasic(index))
+                continue;
+            long potentialSum = basisTree.getColumnPotential(plan.columnOf(index))
+                    + basisTree.getRowPotential(plan.rowOf(index)) - plan.getTariff(index);
+            plan.setPotentialSum(index, potentialSum);
+            if (potentialSum <= 0)
+                continue;
+            candidates[kept++] = index;
+            if (potentialSum > maxElementSum || potentialSum == maxElementSum && index < maxCell) {
+                maxElementSum = potentialSum;
+                maxCell = index;
+            }
+        }
+        candidatesCount = kept;
+        return maxCell;
+    }
+
+    /**
+     * Full scan of plan that keeps cells with the biggest positive potential sums in min-heap of candidates.
+     */
+    private void rebuildCandidates(CompactPlan plan, BasisTree basisTree) {
+        candidatesCount = 0;
+        for (int i = 0; i < plan.getHeight(); i++) {
+            long rowPotential = basisTree.getRowPotential(i);
+            int rowStart = plan.rowStart(i);
+            int rowEnd = plan.rowEnd(i);
+            for (int index = rowStart; index < rowEnd; index++) {
+                if (plan.isBasic(index))
+                    continue;
+                long potentialSum = basisTree.getColumnPotential(plan.columnOf(index, rowStart)) + rowPotential
+                        - plan.getTariff(index);
+                plan.setPotentialSum(index, potentialSum);
+                if (potentialSum <= 0)
+                    continue;
+                if (candidatesCount < candidates.length) {
+                    candidates[candidatesCount] = index;
+                    siftUp(plan, candidatesCount++);
+                } else if (potentialSum > plan.getPotentialSum(candidates[0])) {
+                    candidates[0] = index;
+                    siftDown(plan, 0);
+                }
+            }
+        }
+    }
+
+    private void siftUp(CompactPlan plan, int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (plan.getPotentialSum(candidates[parent]) <= plan.getPotentialSum(candidates[position]))
+                return;
+            swap(parent, position);
+            position = parent;
+        }
+    }
+
+    private void siftDown(CompactPlan plan, int position) {
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < candidatesCount && plan.getPotentialSum(candidates[left]) < plan.getPotentialSum(candidates[smallest]))
+                smallest = left;
+            if (right < candidatesCount && plan.getPotentialSum(candidates[right]) < plan.getPotentialSum(candidates[smallest]))
+                smallest = right;
+            if (smallest == position)
+                return;
+            swap(smallest, position);
+            position = smallest;
+        }
+    }
+
+    private void swap(int first, int second) {
+        int temp = candidates[first];
+        candidates[first] = candidates[second];
+        candidates[second] = temp;
+    }
+}
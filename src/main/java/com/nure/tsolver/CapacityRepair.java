@@ -0,0 +1,141 @@
+package com.nure.tsolver;
+
+import com.nure.tsolver.model.CompactPlan;
+import com.nure.tsolver.model.MultiCommodityProblem;
+
+/**
+ * Primal heuristic of multi-commodity decomposition. Subproblem plans of commodities respect supply and demand, but
+ * may overload shared routes. Excess of overloaded route {@code (i, j)} is moved by cycles
+ * {@code (i, j) -> (i, j') -> (i', j') -> (i', j)} of one commodity: products leave {@code (i, j)} and
+ * {@code (i', j')} and go by {@code (i, j')} and {@code (i', j)}, that have free capacity, so supply and demand
+ * of commodity do not change and no other route becomes overloaded. From all such cycles the one with the lowest
+ * cost change is chosen.
+ */
+final class CapacityRepair {
+    private static final long UNLIMITED = Long.MAX_VALUE;
+
+    private final MultiCommodityProblem problem;
+    private final CompactPlan[] plans;
+    private final int[] routeIndexes;
+    private final int[] routeRows;
+    private final int[] routeColumns;
+    private final int[] capacities;
+    private final int[] slackColumns;
+
+    private int bestCommodity;
+    private int bestRow;
+    private int bestColumn;
+
+    /**
+     * Constructs repair of capacitated routes.
+     *
+     * @param problem      multi-commodity problem.
+     * @param plans        plans with tariffs and cell indexes of every commodity.
+     * @param routeIndexes capacitated route of every real cell, row by row, -1 if route is not limited.
+     * @param routeRows    supplier of every capacitated route.
+     * @param routeColumns consumer of every capacitated route.
+     * @param capacities   capacity of every capacitated route.
+     */
+    CapacityRepair(MultiCommodityProblem problem, CompactPlan[] plans, int[] routeIndexes, int[] routeRows,
+                   int[] routeColumns, int[] capacities) {
+        this.problem = problem;
+        this.plans = plans;
+        this.routeIndexes = routeIndexes;
+        this.routeRows = routeRows;
+        this.routeColumns = routeColumns;
+        this.capacities = capacities;
+        this.slackColumns = new int[problem.getWidth() + 1];
+    }
+
+    /**
+     * Moves excess of all overloaded routes.
+     *
+     * @param flows flow of every cell of every commodity, it is changed.
+     * @param loads load of every capacitated route, it is changed.
+     * @return true if no route is overloaded anymore.
+     */
+    boolean repair(int[][] flows, long[] loads) {
+        for (int route = 0; route < loads.length; route++) {
+            while (loads[route] > capacities[route]) {
+                if (!moveExcess(route, flows, loads))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean moveExcess(int route, int[][] flows, long[] loads) {
+        int row = routeRows[route];
+        int column = routeColumns[route];
+        long bestChange = Long.MAX_VALUE;
+        for (int k = 0; k < plans.length; k++) {
+            CompactPlan plan = plans[k];
+            int cell = plan.index(row, column);
+            if (cell == CompactPlan.NO_CELL || flows[k][cell] == 0)
+                continue;
+            int columnsCount = 0;
+            for (int j = 0; j < plan.getWidth(); j++) {
+                if (j != column && plan.index(row, j) != CompactPlan.NO_CELL && slack(row, j, loads) > 0)
+                    slackColumns[columnsCount++] = j;
+            }
+            for (int i = 0; i < plan.getHeight(); i++) {
+                int enteringCell = plan.index(i, column);
+                if (i == row || enteringCell == CompactPlan.NO_CELL || slack(i, column, loads) <= 0)
+                    continue;
+                long rowChange = (long) plan.getTariff(enteringCell) - plan.getTariff(cell);
+                for (int c = 0; c < columnsCount; c++) {
+                    int j = slackColumns[c];
+                    int leavingCell = plan.index(i, j);
+                    if (leavingCell == CompactPlan.NO_CELL || flows[k][leavingCell] == 0)
+                        continue;
+                    long change = rowChange + plan.getTariff(plan.index(row, j)) - plan.getTariff(leavingCell);
+                    if (change < bestChange) {
+                        bestChange = change;
+                        bestCommodity = k;
+                        bestRow = i;
+                        bestColumn = j;
+                    }
+                }
+            }
+        }
+        if (bestChange == Long.MAX_VALUE)
+            return false;
+        move(route, flows[bestCommodity], plans[bestCommodity], loads);
+        return true;
+    }
+
+    /**
+     * Moves products of the best cycle, as much as excess of route, flows of leaving cells and free capacity of
+     * entering routes allow.
+     */
+    private void move(int route, int[] flows, CompactPlan plan, long[] loads) {
+        int row = routeRows[route];
+        int column = routeColumns[route];
+        int cell = plan.index(row, column);
+        int leavingCell = plan.index(bestRow, bestColumn);
+        long amount = Math.min(loads[route] - capacities[route], Math.min(flows[cell], flows[leavingCell]));
+        amount = Math.min(amount, Math.min(slack(row, bestColumn, loads), slack(bestRow, column, loads)));
+        addFlow(flows, plan, row, column, -amount, loads);
+        addFlow(flows, plan, bestRow, bestColumn, -amount, loads);
+        addFlow(flows, plan, row, bestColumn, amount, loads);
+        addFlow(flows, plan, bestRow, column, amount, loads);
+    }
+
+    private void addFlow(int[] flows, CompactPlan plan, int row, int column, long amount, long[] loads) {
+        flows[plan.index(row, column)] += (int) amount;
+        int route = routeOf(row, column);
+        if (route >= 0)
+            loads[route] += amount;
+    }
+
+    private long slack(int row, int column, long[] loads) {
+        int route = routeOf(row, column);
+        return route < 0 ? UNLIMITED : capacities[route] - loads[route];
+    }
+
+    private int routeOf(int row, int column) {
+        if (row >= problem.getHeight() || column >= problem.getWidth())
+            return -1;
+        return routeIndexes[row * problem.getWidth() + column];
+    }
+}
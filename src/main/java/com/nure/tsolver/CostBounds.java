@@ -0,0 +1,55 @@
+package com.nure.tsolver;
+
+import com.nure.tsolver.model.CompactPlan;
+
+/**
+ * Range checks of plan costs. Tariffs and flows are kept in int arrays, potentials, reduced costs and plan cost
+ * are calculated in long. One check before solve guarantees that long values never overflow, so inner loops of
+ * solvers have no overflow checks.
+ */
+final class CostBounds {
+
+    private CostBounds() {
+    }
+
+    /**
+     * Checks that cost of any plan fits in long, even if every product unit goes by the most expensive route with
+     * tariff multiplied by specified factor. Potential method uses factor one, engines with big tariffs of
+     * artificial arcs use bigger factor.
+     *
+     * @param plan         plan with tariffs.
+     * @param totalSupply  product quantity that is distributed.
+     * @param tariffFactor maximal ratio of tariff used by solver to plan tariff.
+     * @throws IllegalArgumentException if cost may overflow long.
+     */
+    static void checkTotalCost(CompactPlan plan, long totalSupply, long tariffFactor) {
+        if (!fits(maxAbsTariff(plan), tariffFactor, totalSupply))
+            throw new IllegalArgumentException("Total distribution cost of plan is too big for long");
+    }
+
+    /**
+     * Checks that potentials of cost scaling engines fit in long. Tariffs are multiplied by node count plus one
+     * and potentials may grow to a few path costs through all nodes.
+     *
+     * @param plan plan with tariffs.
+     * @throws IllegalArgumentException if scaled potentials may overflow long.
+     */
+    static void checkScaledTariffs(CompactPlan plan) {
+        long nodesScale = plan.getHeight() + plan.getWidth() + 1L;
+        if (!fits(maxAbsTariff(plan), nodesScale, 8 * nodesScale))
+            throw new IllegalArgumentException("Tariffs are too big for cost scaling of plan of this size");
+    }
+
+    static long maxAbsTariff(CompactPlan plan) {
+        long maxTariff = 0;
+        for (int index = 0; index < plan.size(); index++)
+            maxTariff = Math.max(maxTariff, Math.abs((long) plan.getTariff(index)));
+        return maxTariff;
+    }
+
+    private static boolean fits(long first, long second, long third) {
+        if (first == 0 || second == 0 || third == 0)
+            return true;
+        return second <= Long.MAX_VALUE / first && third <= Long.MAX_VALUE / (first * second);
+    }
+}
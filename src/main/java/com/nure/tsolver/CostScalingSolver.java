@@ -0,0 +1,352 @@
+package com.nure.tsolver;
+
+import com.nure.tsolver.model.CompactPlan;
+import com.nure.tsolver.model.DistributionPlan;
+import com.nure.tsolver.model.TransportProblem;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Cost scaling push-relabel engine for min-cost flow. Plan cell is an arc from supplier to consumer, its capacity
+ * is minimum of supplier supply and consumer demand. Tariffs are multiplied by node count plus one, so
+ * 1-optimal flow of scaled tariffs is optimal. Every phase divides epsilon by scaling factor and refines flow:
+ * arcs with negative reduced cost are saturated, then active nodes push excess by admissible arcs and raise
+ * their potentials when there is no such arc. Work of phase depends on arc count, not on product quantity.
+ * <p>
+ * Saturation of arcs at the start of every phase is done by row blocks on fork/join pool when parallel pricing
+ * is enabled in options. Push-relabel flow usually has cycles of cells, so at the end cells with products are
+ * added to basis one by one with cycle moves that do not change optimal cost.
+ * <p>
+ * Listener gets only {@code onFinish}, because engine does not build basis during solve.
+ */
+public class CostScalingSolver implements TransportSolver {
+    private static final int SCALING_FACTOR = 4;
+    private static final int MIN_ROWS_PER_TASK = 64;
+
+    private final SolverListener listener;
+    private final ForkJoinPool pool;
+
+    private CompactPlan plan;
+    private int height;
+    private int width;
+    private long costScale;
+    private int[] supply;
+    private int[] demand;
+
+    private int[] columnOffsets;
+    private int[] columnCells;
+    private int[] columnRows;
+
+    private long[] potentials;
+    private long[] excess;
+    private int[] currentArc;
+    private int[] queue;
+    private boolean[] queued;
+    private int queueHead;
+    private int queueSize;
+    private long epsilon;
+    private long previousEpsilon;
+    private long[] phaseStartPotentials;
+    private int pushes;
+
+    /**
+     * Constructs engine without listener and parallel phases.
+     */
+    public CostScalingSolver() {
+        this(SolverListener.NO_OP, null);
+    }
+
+    /**
+     * Constructs engine with listener and parallel arc saturation from solver options.
+     *
+     * @param options solver options.
+     */
+    public CostScalingSolver(SolverOptions options) {
+        this(options.getListener(), options.isParallelPricing() ? options.getPricingPool() : null);
+    }
+
+    private CostScalingSolver(SolverListener listener, ForkJoinPool pool) {
+        this.listener = listener;
+        this.pool = pool;
+    }
+
+    /**
+     * Finds optimal plan by cost scaling.
+     *
+     * @throws IllegalArgumentException if sparse plan has no feasible distribution by its allowed routes or costs
+     *                                  may overflow long.
+     */
+    @Override
+    public DistributionPlan solve(TransportProblem problem) {
+        plan = problem.newPlan();
+        CostBounds.checkTotalCost(plan, problem.getTotalSupply(), 1);
+        CostBounds.checkScaledTariffs(plan);
+        init(problem);
+
+        long maxTariff = Math.max(1, CostBounds.maxAbsTariff(plan));
+        epsilon = maxTariff * costScale;
+        do {
+            previousEpsilon = epsilon;
+            epsilon = Math.max(1, epsilon / SCALING_FACTOR);
+            refine();
+        } while (epsilon > 1);
+
+        CycleMover.addFlowsToBasis(plan);
+        DistributionPlan distributionPlan = new DistributionPlan(plan, problem.newParticipants());
+        distributionPlan.setIterationsCount(pushes);
+        listener.onFinish(distributionPlan, new IterationMetrics(distributionPlan.countMoney()));
+        return distributionPlan;
+    }
+
+    private void init(TransportProblem problem) {
+        height = plan.getHeight();
+        width = plan.getWidth();
+        int nodesCount = height + width;
+        costScale = nodesCount + 1;
+        supply = new int[height];
+        demand = new int[width];
+        for (int i = 0; i < height; i++)
+            supply[i] = problem.getSupply(i);
+        for (int j = 0; j < width; j++)
+            demand[j] = problem.getDemand(j);
+
+        columnOffsets = new int[width + 1];
+        columnCells = new int[plan.size()];
+        columnRows = new int[plan.size()];
+        for (int index = 0; index < plan.size(); index++)
+            columnOffsets[plan.columnOf(index) + 1]++;
+        for (int j = 0; j < width; j++)
+            columnOffsets[j + 1] += columnOffsets[j];
+        int[] next = new int[width];
+        System.arraycopy(columnOffsets, 0, next, 0, width);
+        for (int i = 0; i < height; i++) {
+            int rowStart = plan.rowStart(i);
+            int rowEnd = plan.rowEnd(i);
+            for (int index = rowStart; index < rowEnd; index++) {
+                int arc = next[plan.columnOf(index, rowStart)]++;
+                columnCells[arc] = index;
+                columnRows[arc] = i;
+            }
+        }
+
+        potentials = new long[nodesCount];
+        phaseStartPotentials = new long[nodesCount];
+        excess = new long[nodesCount];
+        currentArc = new int[nodesCount];
+        queue = new int[nodesCount];
+        queued = new boolean[nodesCount];
+    }
+
+    /**
+     * Makes epsilon-optimal flow from flow that was optimal for previous epsilon.
+     */
+    private void refine() {
+        if (pool != null)
+            pool.invoke(new SaturationTask(0, height, Math.max(MIN_ROWS_PER_TASK, height / (4 * pool.getParallelism()))));
+        else
+            saturateRows(0, height);
+
+        for (int i = 0; i < height; i++)
+            excess[i] = supply[i];
+        for (int j = 0; j < width; j++)
+            excess[height + j] = -demand[j];
+        for (int i = 0; i < height; i++) {
+            int rowStart = plan.rowStart(i);
+            int rowEnd = plan.rowEnd(i);
+            for (int index = rowStart; index < rowEnd; index++) {
+                int flow = plan.getFlow(index);
+                excess[i] -= flow;
+                excess[height + plan.columnOf(index, rowStart)] += flow;
+            }
+        }
+
+        System.arraycopy(potentials, 0, phaseStartPotentials, 0, potentials.length);
+        queueHead = 0;
+        queueSize = 0;
+        for (int node = 0; node < excess.length; node++) {
+            currentArc[node] = firstArc(node);
+            if (excess[node] > 0)
+                enqueue(node);
+        }
+        while (queueSize > 0) {
+            int node = queue[queueHead];
+            queueHead = queueHead + 1 == queue.length ? 0 : queueHead + 1;
+            queueSize--;
+            queued[node] = false;
+            discharge(node);
+        }
+    }
+
+    /**
+     * Saturates arcs with negative reduced cost and empties arcs with positive reduced cost, so every residual
+     * arc has non-negative reduced cost. Rows are independent, every arc is written by its row only.
+     */
+    private void saturateRows(int fromRow, int toRow) {
+        for (int i = fromRow; i < toRow; i++) {
+            long rowPotential = potentials[i];
+            int rowStart = plan.rowStart(i);
+            int rowEnd = plan.rowEnd(i);
+            for (int index = rowStart; index < rowEnd; index++) {
+                int column = plan.columnOf(index, rowStart);
+                long reducedCost = plan.getTariff(index) * costScale - rowPotential + potentials[height + column];
+                if (reducedCost < 0)
+                    plan.setFlow(index, Math.min(supply[i], demand[column]));
+                else if (reducedCost > 0)
+                    plan.setFlow(index, 0);
+            }
+        }
+    }
+
+    /**
+     * Pushes excess of node by admissible arcs starting from its current arc, relabels node when current arc
+     * reaches the end of its arcs.
+     */
+    private void discharge(int node) {
+        while (excess[node] > 0) {
+            if (node < height)
+                dischargeRow(node);
+            else
+                dischargeColumn(node - height);
+            if (excess[node] > 0)
+                relabel(node);
+        }
+    }
+
+    /**
+     * Pushes supplier excess by cells of its row that have free capacity.
+     */
+    private void dischargeRow(int row) {
+        long rowPotential = potentials[row];
+        int rowStart = plan.rowStart(row);
+        int rowEnd = plan.rowEnd(row);
+        int arc = currentArc[row];
+        for (; arc < rowEnd; arc++) {
+            int column = plan.columnOf(arc, rowStart);
+            int node = height + column;
+            long reducedCost = plan.getTariff(arc) * costScale - rowPotential + potentials[node];
+            if (reducedCost >= 0)
+                continue;
+            int flow = plan.getFlow(arc);
+            long residual = Math.min(supply[row], demand[column]) - flow;
+            if (residual <= 0)
+                continue;
+            int amount = (int) Math.min(excess[row], residual);
+            plan.setFlow(arc, flow + amount);
+            push(row, node, amount);
+            if (excess[row] == 0)
+                break;
+        }
+        currentArc[row] = arc;
+    }
+
+    /**
+     * Pushes consumer excess back by cells of its column that have products.
+     */
+    private void dischargeColumn(int column) {
+        int node = height + column;
+        long columnPotential = potentials[node];
+        int columnEnd = columnOffsets[column + 1];
+        int arc = currentArc[node];
+        for (; arc < columnEnd; arc++) {
+            int cell = columnCells[arc];
+            int flow = plan.getFlow(cell);
+            if (flow == 0)
+                continue;
+            int row = columnRows[arc];
+            long reducedCost = -plan.getTariff(cell) * costScale - columnPotential + potentials[row];
+            if (reducedCost >= 0)
+                continue;
+            int amount = (int) Math.min(excess[node], flow);
+            plan.setFlow(cell, flow - amount);
+            push(node, row, amount);
+            if (excess[node] == 0)
+                break;
+        }
+        currentArc[node] = arc;
+    }
+
+    private void push(int from, int to, int amount) {
+        excess[from] -= amount;
+        excess[to] += amount;
+        pushes++;
+        if (excess[to] > 0)
+            enqueue(to);
+    }
+
+    /**
+     * Raises node potential, so the cheapest residual arc becomes admissible with reduced cost {@code -epsilon}.
+     * Discharge continues from this arc.
+     */
+    private void relabel(int node) {
+        long minPotential = Long.MAX_VALUE;
+        int minArc = -1;
+        if (node < height) {
+            int rowStart = plan.rowStart(node);
+            int rowEnd = plan.rowEnd(node);
+            for (int arc = rowStart; arc < rowEnd; arc++) {
+                int column = plan.columnOf(arc, rowStart);
+                if (plan.getFlow(arc) >= Math.min(supply[node], demand[column]))
+                    continue;
+                long potential = plan.getTariff(arc) * costScale + potentials[height + column];
+                if (potential < minPotential) {
+                    minPotential = potential;
+                    minArc = arc;
+                }
+            }
+        } else {
+            int column = node - height;
+            for (int arc = columnOffsets[column], end = columnOffsets[column + 1]; arc < end; arc++) {
+                int cell = columnCells[arc];
+                if (plan.getFlow(cell) == 0)
+                    continue;
+                long potential = -plan.getTariff(cell) * costScale + potentials[columnRows[arc]];
+                if (potential < minPotential) {
+                    minPotential = potential;
+                    minArc = arc;
+                }
+            }
+        }
+        long limit = 2L * (excess.length + 1) * (epsilon + previousEpsilon);
+        if (minArc < 0 || minPotential + epsilon - phaseStartPotentials[node] > limit)
+            throw new IllegalArgumentException("Supply can not be delivered to consumers by allowed routes");
+        potentials[node] = minPotential + epsilon;
+        currentArc[node] = minArc;
+    }
+
+    private void enqueue(int node) {
+        if (queued[node])
+            return;
+        queued[node] = true;
+        int tail = queueHead + queueSize;
+        queue[tail >= queue.length ? tail - queue.length : tail] = node;
+        queueSize++;
+    }
+
+    private int firstArc(int node) {
+        return node < height ? plan.rowStart(node) : columnOffsets[node - height];
+    }
+
+    @SuppressWarnings("serial")
+    private class SaturationTask extends RecursiveAction {
+        private final int fromRow;
+        private final int toRow;
+        private final int rowsPerTask;
+
+        SaturationTask(int fromRow, int toRow, int rowsPerTask) {
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.rowsPerTask = rowsPerTask;
+        }
+
+        @Override
+        protected void compute() {
+            if (toRow - fromRow <= rowsPerTask) {
+                saturateRows(fromRow, toRow);
+                return;
+            }
+            int middle = (fromRow + toRow) >>> 1;
+            invokeAll(new SaturationTask(fromRow, middle, rowsPerTask), new SaturationTask(middle, toRow, rowsPerTask));
+        }
+    }
+}
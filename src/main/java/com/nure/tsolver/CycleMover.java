@@ -1,200 +1,211 @@
 package com.nure.tsolver;
 
-import com.nure.tsolver.model.DistributionCell;
-import com.nure.tsolver.model.DistributionParticipants;
-import com.nure.tsolver.model.DistributionPlan;
-
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
+import com.nure.tsolver.model.CompactPlan;
 
 public class CycleMover {
-    private DistributionPlan potentialPlan;
-    private DistributionParticipants participants;
+    private CompactPlan potentialPlan;
+    private BasisTree basisTree;
+
+    private final int[] rowSide;
+    private final int[] columnSide;
+    private int rowSideLength;
+    private int columnSideLength;
+    private int movedQuantity;
 
     /**
-     * Constructs mover for specified potential plan with participants.
+     * Constructs mover for specified potential plan with its basis tree.
      *
-     * @param potentialPlan distribution plan where cycle will be build.
-     * @param participants  distribution participants.
+     * @param potentialPlan compact distribution plan where cycle will be build.
+     * @param basisTree     spanning tree of plan basic cells.
      */
-    public CycleMover(DistributionPlan potentialPlan, DistributionParticipants participants) {
+    public CycleMover(CompactPlan potentialPlan, BasisTree basisTree) {
         this.potentialPlan = potentialPlan;
-        this.participants = participants;
+        this.basisTree = basisTree;
+        this.rowSide = new int[basisTree.nodesCount()];
+        this.columnSide = new int[basisTree.nodesCount()];
     }
 
     /**
-     * Start cycle building from specified cell using 2 ways: by row and by column. If all ways is empty,
-     * because build cycle with current cycle basis is impossible, algorithm add new random cell to basis and
-     * try to build cycle again.
-     * After that it moves products by built cycle.
-     * @param cell max potential cell from distribution plan.
+     * Makes mover work with other plan and its tree of the same node count, cycle arrays are reused.
+     *
+     * @param potentialPlan compact distribution plan where cycle will be build.
+     * @param basisTree     spanning tree of plan basic cells.
+     * @return false if tree has other node count and mover was not changed.
      */
-    void cycle(DistributionCell cell) {
-        List<DistributionCell> usedPositions = new ArrayList<>();
-        Optional<List<DistributionCell>> firstWay = Optional.empty();
-        Optional<List<DistributionCell>> secondWay = Optional.empty();
+    boolean reset(CompactPlan potentialPlan, BasisTree basisTree) {
+        if (basisTree.nodesCount() != rowSide.length)
+            return false;
+        this.potentialPlan = potentialPlan;
+        this.basisTree = basisTree;
+        return true;
+    }
 
-        if (checkRowOnFilling(cell.getX()) > 0) {
-            firstWay = makeCycle(cell, usedPositions, true);
+    /**
+     * Builds basis of plan whose cells hold optimal flow but are not basic, for example flow of min-cost flow
+     * algorithm. Cells that close cycle with basis are added by cycle moves, optimal flow has no cycle with
+     * negative cost, so moves keep plan cost. At the end basis is completed by empty cells.
+     * @param plan plan with optimal flow and empty basis.
+     */
+    static void addFlowsToBasis(CompactPlan plan) {
+        BasisTree basisTree = new BasisTree(plan);
+        CycleMover cycleMover = new CycleMover(plan, basisTree);
+        for (int index = 0; index < plan.size(); index++) {
+            if (plan.getFlow(index) > 0)
+                cycleMover.addToBasis(index);
         }
-        cell.setFullnessEmpty();
-        usedPositions = new ArrayList<>();
-        if (checkColumnOnFilling(cell.getY()) > 0) {
-            secondWay = makeCycle(cell, usedPositions, false);
-        } else
-            System.out.println("Can't build cycle");
-        cell.setFullnessEmpty();
+        basisTree.connectComponents();
+    }
 
-        if (!firstWay.isPresent() && !secondWay.isPresent()) {
-            System.out.println("Can't build cycle");
-            //firstWay = addBasisCellAndRebuildCycle(usedPositions, cell);
+    /**
+     * Builds cycle of specified cell and moves products by it. Cycle is the cell itself and the tree path between
+     * cell row and cell column. If there is no such path, because cell connects two separate parts of degenerate
+     * basis, cell is added to basis with zero fullness. After move basis tree is updated.
+     * @param cell index of max potential cell in compact plan.
+     * @return index of cell that left basis, {@code CompactPlan.NO_CELL} if cell was added to basis without cycle.
+     */
+    int cycle(int cell) {
+        int row = potentialPlan.rowOf(cell);
+        int column = potentialPlan.columnOf(cell);
+        if (!makeCycle(row, column)) {
+            movedQuantity = 0;
+            potentialPlan.setBasic(cell, 0);
+            basisTree.join(row, column);
+            return CompactPlan.NO_CELL;
         }
-
-
-        if ((!firstWay.isPresent() && secondWay.isPresent()))
-            firstWay = secondWay;
-        else if(firstWay.isPresent() && secondWay.isPresent() && firstWay.get().size() > secondWay.get().size())
-            firstWay = secondWay;
-
-        firstWay.ifPresent(way-> moveProductsUsingCycle(way, cell));
-
+        int leavingCell = moveProductsUsingCycle(cell);
+        basisTree.pivot(row, column, potentialPlan.rowOf(leavingCell), potentialPlan.columnOf(leavingCell));
+        return leavingCell;
     }
 
     /**
-     * Recursive cycle path finder, that can go by row and column, depend on {@code isRow} parameter.
-     * @param position starting distribution basis cell.
-     * @param used list of used cells in cycle path, used for recursion.
-     * @param isRow next move direction parameter.
-     * @return optional of corner distribution cells used in path.
+     * Adds to basis cell that is not basic but already holds products, for example after plan repair. If cell
+     * connects two separate parts of basis, it is just added. Otherwise products are moved by its cycle in the
+     * direction that does not make plan more expensive, until cell itself or one of cycle cells becomes empty.
+     * Empty cell leaves basis, so basis stays a tree and plan stays feasible.
+     * @param cell index of cell with products that is not in basis.
      */
-    private Optional<List<DistributionCell>> makeCycle(DistributionCell position, List<DistributionCell> used, boolean isRow) {
-        used.add(position);
-        if (used.size() == 1)
-            used.get(0).setFullness(1);
-
-        if (used.size() > 3 && used.get(used.size() - 1) == used.get(0))
-            return Optional.of(used);
-        if (isRow) {
-            for (int i = 0; i < participants.consumersCount(); i++) {
-                if (!potentialPlan.getCell(position.getX(), i).isFullnessNull()
-                        && potentialPlan.getCell(position.getX(), i) != position) {
-                    if (used.size() > 3 && used.get(0) == potentialPlan.getCell(position.getX(), i)) {
-                        used.add(potentialPlan.getCell(position.getX(), i));
-                        return Optional.of(used);
-                    } else {
-                        if (!used.subList(1, used.size()).contains(potentialPlan.getCell(position.getX(), i))
-                                && checkColumnOnFilling(i) > 0) {
-
-                            List<DistributionCell> newArray = new ArrayList<>(used);
-                            Optional<List<DistributionCell>> recursiveRes =
-                                    makeCycle(potentialPlan.getCell(position.getX(), i), newArray, false);
-                            if (recursiveRes.isPresent()) {
-                                return recursiveRes;
-                            }
-                        }
-                    }
+    void addToBasis(int cell) {
+        int row = potentialPlan.rowOf(cell);
+        int column = potentialPlan.columnOf(cell);
+        int fullness = potentialPlan.getFlow(cell);
+        if (!makeCycle(row, column)) {
+            potentialPlan.setBasic(cell, fullness);
+            basisTree.join(row, column);
+            return;
+        }
+        long potentialSum = basisTree.getColumnPotential(column) + basisTree.getRowPotential(row)
+                - potentialPlan.getTariff(cell);
+        if (potentialSum > 0) {
+            int leavingCell = moveProductsUsingCycle(cell);
+            basisTree.pivot(row, column, potentialPlan.rowOf(leavingCell), potentialPlan.columnOf(leavingCell));
+            return;
+        }
 
-                }
+        int leavingCell = CompactPlan.NO_CELL;
+        int minCostValue = fullness;
+        for (int i = 1; i < rowSideLength; i += 2) {
+            if (potentialPlan.getFlow(rowSide[i]) < minCostValue) {
+                minCostValue = potentialPlan.getFlow(rowSide[i]);
+                leavingCell = rowSide[i];
             }
-        } else {
-            for (int i = 0; i < participants.suppliersCount(); i++) {
-                if (!potentialPlan.getCell(i, position.getY()).isFullnessNull()
-                        && potentialPlan.getCell(i, position.getY()) != position) {
-                    if (used.size() > 3 && potentialPlan.getCell(i, position.getY()) == used.get(0)) {
-                        used.add(potentialPlan.getCell(i, position.getY()));
-                        return Optional.of(used);
-                    } else {
-                        if (!used.subList(1, used.size()).contains(potentialPlan.getCell(i, position.getY()))
-                                && checkRowOnFilling(i) > 0) {
-
-                            List<DistributionCell> newArray = new ArrayList<>(used);
-                            Optional<List<DistributionCell>> recursiveRes =
-                                    makeCycle(potentialPlan.getCell(i, position.getY()), newArray, true);
-                            if (recursiveRes.isPresent()) {
-                                return recursiveRes;
-                            }
-                        }
-                    }
-                }
+        }
+        for (int i = 1; i < columnSideLength; i += 2) {
+            if (potentialPlan.getFlow(columnSide[i]) < minCostValue) {
+                minCostValue = potentialPlan.getFlow(columnSide[i]);
+                leavingCell = columnSide[i];
             }
         }
-        return Optional.empty();
+        shiftSide(rowSide, rowSideLength, -minCostValue);
+        shiftSide(columnSide, columnSideLength, -minCostValue);
+        if (leavingCell == CompactPlan.NO_CELL) {
+            potentialPlan.setNonBasic(cell);
+            return;
+        }
+        potentialPlan.setBasic(cell, fullness - minCostValue);
+        potentialPlan.setNonBasic(leavingCell);
+        basisTree.pivot(row, column, potentialPlan.rowOf(leavingCell), potentialPlan.columnOf(leavingCell));
     }
 
     /**
-     * Method that adds to basis random empty distribution cell using shuffle.
-     * @param usedPositions list of used cells in cycle path, used for down {@code makeCycle} recursion.
-     * @param cell starting distribution cell.
-     * @return optional of corner distribution cells used in path.
+     * Cycle path finder, that walks from cell row node and cell column node up to their lowest common ancestor
+     * using parent links and depth of basis tree. Path cells are stored in two sides: cells walked from row
+     * node and cells walked from column node. Path length is linear, no recursion and allocation is used.
+     * @param row row of cell that starts cycle.
+     * @param column column of cell that starts cycle.
+     * @return true if row and column are connected in basis tree and cycle is found.
      */
-
-    /**
-     * Method that moves product using found cycle way.
-     * @param way list of corner of distribution cycle way.
-     * @param cell starting distribution basis cell.
-     */
-    private void moveProductsUsingCycle(List<DistributionCell> way, DistributionCell cell) {
-        DistributionCell minCost = way.get(1);
-        for (int i = 2; i < way.size(); i++) {
-            if (i % 2 != 0 && way.get(i).getFullness() < minCost.getFullness())
-                minCost = way.get(i);
+    private boolean makeCycle(int row, int column) {
+        rowSideLength = 0;
+        columnSideLength = 0;
+        int rowNode = basisTree.rowNode(row);
+        int columnNode = basisTree.columnNode(column);
+        while (basisTree.getDepth(rowNode) > basisTree.getDepth(columnNode)) {
+            rowSide[rowSideLength++] = basisTree.parentCell(rowNode);
+            rowNode = basisTree.getParent(rowNode);
         }
-        cell.setFullness(0);
-        int minCostValue = minCost.getFullness();
-        for (int i = 0; i < way.size() - 1; i++) {
-            if (i % 2 == 0) {
-                way.get(i).setFullness(way.get(i).getFullness() + minCostValue);
-            } else {
-                way.get(i).setFullness(way.get(i).getFullness() - minCostValue);
-                if (way.get(i).getFullness() == 0)
-                    way.get(i).setFullnessEmpty();
-            }
+        while (basisTree.getDepth(columnNode) > basisTree.getDepth(rowNode)) {
+            columnSide[columnSideLength++] = basisTree.parentCell(columnNode);
+            columnNode = basisTree.getParent(columnNode);
         }
+        while (rowNode != columnNode) {
+            if (basisTree.getParent(rowNode) == BasisTree.NO_NODE)
+                return false;
+            rowSide[rowSideLength++] = basisTree.parentCell(rowNode);
+            rowNode = basisTree.getParent(rowNode);
+            columnSide[columnSideLength++] = basisTree.parentCell(columnNode);
+            columnNode = basisTree.getParent(columnNode);
+        }
+        return true;
     }
 
     /**
-     * Used cells in row counter for cycle mover.
-     * @param row row index, starting from 0.
-     * @return count of cycle corners in row.
+     * Method that moves product using found cycle. On both path sides cells with even index (counting from cell
+     * row and cell column) lose products, other cells gain them. Only one cell with minimal fullness leaves basis,
+     * other cells that become zero stay in basis, so basis keeps its size. From cells with equal minimal fullness
+     * the cell with the smallest index leaves, as smallest index rule requires.
+     * @param cell index of starting distribution cell that enters basis.
+     * @return index of cell that left basis.
      */
-    private int checkRowOnFilling(int row) {
-        int count = 0;
-        for (int i = 0; i < potentialPlan.getWidth(); i++) {
-            if (!potentialPlan.getCell(row, i).isFullnessNull()) {
-                count++;
-            }
+    private int moveProductsUsingCycle(int cell) {
+        int minCost = CompactPlan.NO_CELL;
+        for (int i = 0; i < rowSideLength; i += 2) {
+            if (isBetterLeaving(rowSide[i], minCost))
+                minCost = rowSide[i];
         }
-        return count;
+        for (int i = 0; i < columnSideLength; i += 2) {
+            if (isBetterLeaving(columnSide[i], minCost))
+                minCost = columnSide[i];
+        }
+
+        int minCostValue = potentialPlan.getFlow(minCost);
+        movedQuantity = minCostValue;
+        potentialPlan.setBasic(cell, potentialPlan.getFlow(cell) + minCostValue);
+        shiftSide(rowSide, rowSideLength, minCostValue);
+        shiftSide(columnSide, columnSideLength, minCostValue);
+        potentialPlan.setNonBasic(minCost);
+        return minCost;
     }
 
-    /**
-     * Used cells in column counter for cycle mover.
-     * @param column column index, starting from 0.
-     * @return count of cycle corners in column.
-     */
-    private int checkColumnOnFilling(int column) {
-        int count = 0;
-        for (int i = 0; i < potentialPlan.getHeight(); i++) {
-            if (!potentialPlan.getCell(i, column).isFullnessNull())
-                count++;
+    private boolean isBetterLeaving(int cell, int leavingCell) {
+        if (leavingCell == CompactPlan.NO_CELL)
+            return true;
+        int flow = potentialPlan.getFlow(cell);
+        int leavingFlow = potentialPlan.getFlow(leavingCell);
+        return flow < leavingFlow || flow == leavingFlow && cell < leavingCell;
+    }
+
+    private void shiftSide(int[] side, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            int corner = side[i];
+            potentialPlan.setFlow(corner, i % 2 == 0 ? potentialPlan.getFlow(corner) - value : potentialPlan.getFlow(corner) + value);
         }
-        return count;
     }
 
     /**
-     * Find all cells with empty fullness in distribution plan, except {@code forbiddenCell}
-     * @param minForbiddenCell exception cell.
-     * @return list of all empty cells in plan.
+     * Gets product quantity moved by last cycle.
+     * @return moved quantity, zero for degenerate cycle or cell added without cycle.
      */
-    private List<DistributionCell> findEmptyCells(DistributionCell minForbiddenCell) {
-        List<DistributionCell> resultList = new ArrayList<>();
-        for (int i = 0; i < participants.suppliersCount(); i++) {
-            for (int j = 0; j < participants.consumersCount(); j++) {
-                if (potentialPlan.getCell(i, j) != minForbiddenCell && potentialPlan.getCell(i, j).isFullnessNull())
-                    resultList.add(potentialPlan.getCell(i, j));
-            }
-        }
-        return resultList;
+    int getMovedQuantity() {
+        return movedQuantity;
     }
 }
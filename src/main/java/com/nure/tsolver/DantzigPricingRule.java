@@ -0,0 +1,210 @@
+package com.nure.tsolver;
+
+import com.nure.tsolver.model.CompactPlan;
+
+import java.util.Arrays;
+
+/**
+ * Full pricing: cell with the biggest potential sum of all empty cells enters basis. Potential sums of empty cells
+ * are kept in plan between iterations together with the best cell of every row. Pivot shifts potentials only of
+ * subtree that was hung on entering cell, so only rows and columns of that subtree are priced again and entering
+ * cell is chosen from best cells of rows. Whole plan is priced when potentials were calculated from scratch,
+ * changed more than once since previous call or subtree covers big part of plan.
+ */
+public class DantzigPricingRule implements FullPricingRule {
+    private CompactPlan plan;
+    private BasisTree basisTree;
+    private int potentialsVersion;
+    private int[] rowBest;
+    private int[] dirtyRows;
+    private int dirtyRowsCount;
+    private boolean[] dirty;
+    private boolean[] shifted;
+
+    private CompactPlan indexedPlan;
+    private int[] columnOffsets;
+    private int[] columnCells;
+
+    @Override
+    public void reset() {
+        plan = null;
+        basisTree = null;
+    }
+
+    /**
+     * Finds cell with maximum potential sum, from equal sums the cell with the lowest index, as full scan of plan
+     * row by row would find.
+     */
+    @Override
+    public int findEnteringCell(CompactPlan plan, BasisTree basisTree) {
+        if (!canPriceShifted(plan, basisTree))
+            priceAll(plan, basisTree);
+        else if (basisTree.getPotentialsVersion() != potentialsVersion)
+            priceShifted();
+        potentialsVersion = basisTree.getPotentialsVersion();
+
+        long maxElementSum = 0;
+        int maxCell = CompactPlan.NO_CELL;
+        for (int i = 0; i < plan.getHeight(); i++) {
+            int best = rowBest[i];
+            if (best != CompactPlan.NO_CELL && plan.getPotentialSum(best) > maxElementSum) {
+                maxElementSum = plan.getPotentialSum(best);
+                maxCell = best;
+            }
+        }
+        return maxCell;
+    }
+
+    @Override
+    public long getRowMaxPotentialSum(int row) {
+        int best = rowBest[row];
+        return best == CompactPlan.NO_CELL ? 0 : Math.max(0, plan.getPotentialSum(best));
+    }
+
+    /**
+     * Checks that sums of previous call are kept for the same plan and tree, and tree potentials were changed at
+     * most once since then by shift of subtree, whose rows and columns have less than half of plan cells.
+     */
+    private boolean canPriceShifted(CompactPlan plan, BasisTree basisTree) {
+        if (plan != this.plan || basisTree != this.basisTree)
+            return false;
+        int version = basisTree.getPotentialsVersion();
+        if (version == potentialsVersion)
+            return true;
+        int shiftedCount = basisTree.getShiftedNodesCount();
+        if (version != potentialsVersion + 1 || shiftedCount == BasisTree.NO_NODE)
+            return false;
+        long shiftedCells = 0;
+        for (int k = 0; k < shiftedCount; k++) {
+            int node = basisTree.getShiftedNode(k);
+            shiftedCells += basisTree.isRowNode(node)
+                    ? plan.size() / plan.getHeight()
+                    : plan.size() / plan.getWidth();
+        }
+        return shiftedCells * 2 < plan.size();
+    }
+
+    private void priceAll(CompactPlan plan, BasisTree basisTree) {
+        this.plan = plan;
+        this.basisTree = basisTree;
+        if (rowBest == null || rowBest.length != plan.getHeight()) {
+            rowBest = new int[plan.getHeight()];
+            dirtyRows = new int[plan.getHeight()];
+            dirty = new boolean[plan.getHeight()];
+        }
+        if (shifted == null || shifted.length != basisTree.nodesCount())
+            shifted = new boolean[basisTree.nodesCount()];
+        for (int i = 0; i < plan.getHeight(); i++)
+            priceRow(i);
+    }
+
+    /**
+     * Prices rows of shifted subtree and cells of its columns in other rows. Sums of cells whose row and column
+     * are both inside or both outside of subtree did not change. Row whose best cell lost sum or became basic is
+     * priced again at the end.
+     */
+    private void priceShifted() {
+        int shiftedCount = basisTree.getShiftedNodesCount();
+        for (int k = 0; k < shiftedCount; k++)
+            shifted[basisTree.getShiftedNode(k)] = true;
+        for (int k = 0; k < shiftedCount; k++) {
+            int node = basisTree.getShiftedNode(k);
+            if (basisTree.isRowNode(node))
+                priceRow(node);
+        }
+        for (int k = 0; k < shiftedCount; k++) {
+            int node = basisTree.getShiftedNode(k);
+            if (!basisTree.isRowNode(node))
+                priceColumn(node - plan.getHeight());
+        }
+        for (int k = 0; k < dirtyRowsCount; k++) {
+            dirty[dirtyRows[k]] = false;
+            priceRow(dirtyRows[k]);
+        }
+        dirtyRowsCount = 0;
+        for (int k = 0; k < shiftedCount; k++)
+            shifted[basisTree.getShiftedNode(k)] = false;
+    }
+
+    private void priceRow(int row) {
+        long maxElementSum = Long.MIN_VALUE;
+        int maxCell = CompactPlan.NO_CELL;
+        long rowPotential = basisTree.getRowPotential(row);
+        int rowStart = plan.rowStart(row);
+        int rowEnd = plan.rowEnd(row);
+        for (int index = rowStart; index < rowEnd; index++) {
+            if (plan.isBasic(index))
+                continue;
+            long potentialSum = basisTree.getColumnPotential(plan.columnOf(index, rowStart)) + rowPotential
+                    - plan.getTariff(index);
+            plan.setPotentialSum(index, potentialSum);
+            if (potentialSum > maxElementSum) {
+                maxElementSum = potentialSum;
+                maxCell = index;
+            }
+        }
+        rowBest[row] = maxCell;
+    }
+
+    private void priceColumn(int column) {
+        long columnPotential = basisTree.getColumnPotential(column);
+        if (!plan.isSparse()) {
+            for (int i = 0; i < plan.getHeight(); i++) {
+                if (!shifted[i])
+                    priceCell(i, plan.rowStart(i) + column, columnPotential);
+            }
+            return;
+        }
+        indexColumns();
+        for (int k = columnOffsets[column]; k < columnOffsets[column + 1]; k++) {
+            int index = columnCells[k];
+            int row = plan.rowOf(index);
+            if (!shifted[row])
+                priceCell(row, index, columnPotential);
+        }
+    }
+
+    private void priceCell(int row, int index, long columnPotential) {
+        int best = rowBest[row];
+        if (plan.isBasic(index)) {
+            if (best == index)
+                markDirty(row);
+            return;
+        }
+        long potentialSum = columnPotential + basisTree.getRowPotential(row) - plan.getTariff(index);
+        long previousSum = plan.getPotentialSum(index);
+        plan.setPotentialSum(index, potentialSum);
+        if (best == index) {
+            if (potentialSum < previousSum)
+                markDirty(row);
+        } else if (best == CompactPlan.NO_CELL || potentialSum > plan.getPotentialSum(best)
+                || potentialSum == plan.getPotentialSum(best) && index < best) {
+            rowBest[row] = index;
+        }
+    }
+
+    private void markDirty(int row) {
+        if (!dirty[row]) {
+            dirty[row] = true;
+            dirtyRows[dirtyRowsCount++] = row;
+        }
+    }
+
+    /**
+     * Builds cell indexes of sparse plan grouped by column, once for every plan.
+     */
+    private void indexColumns() {
+        if (indexedPlan == plan)
+            return;
+        columnOffsets = new int[plan.getWidth() + 1];
+        columnCells = new int[plan.size()];
+        for (int index = 0; index < plan.size(); index++)
+            columnOffsets[plan.columnOf(index) + 1]++;
+        for (int j = 0; j < plan.getWidth(); j++)
+            columnOffsets[j + 1] += columnOffsets[j];
+        int[] next = Arrays.copyOf(columnOffsets, plan.getWidth());
+        for (int index = 0; index < plan.size(); index++)
+            columnCells[next[plan.columnOf(index)]++] = index;
+        indexedPlan = plan;
+    }
+}
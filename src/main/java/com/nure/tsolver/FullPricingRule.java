@@ -0,0 +1,15 @@
+package com.nure.tsolver;
+
+/**
+ * Pricing rule that prices every empty cell on every call. Then solver knows the biggest potential sum of every row
+ * and lower bound of optimal cost on every iteration.
+ */
+public interface FullPricingRule extends PricingRule {
+    /**
+     * Gets the biggest potential sum of empty cells of row priced by last call of {@code findEnteringCell}.
+     *
+     * @param row row of plan.
+     * @return the biggest potential sum of row, zero if no empty cell of row has positive sum.
+     */
+    long getRowMaxPotentialSum(int row);
+}
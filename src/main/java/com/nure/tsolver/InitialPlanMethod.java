@@ -0,0 +1,55 @@
+package com.nure.tsolver;
+
+import com.nure.tsolver.model.CompactPlan;
+import com.nure.tsolver.model.DistributionParticipants;
+import com.nure.tsolver.model.TransportProblem;
+
+/**
+ * Initial plan heuristics that can be selected for solve in {@code SolverOptions}.
+ */
+public enum InitialPlanMethod {
+    NORTH_WEST {
+        @Override
+        public InitialPlanStrategy newStrategy(TransportProblem problem) {
+            return new NorthWestPlan(problem);
+        }
+    },
+    MIN_ELEMENT {
+        @Override
+        public InitialPlanStrategy newStrategy(TransportProblem problem) {
+            return new MinElementPlanSolver(problem);
+        }
+    },
+    VOGEL {
+        @Override
+        public InitialPlanStrategy newStrategy(TransportProblem problem) {
+            return new VogelPlanSolver(problem);
+        }
+    },
+    RUSSELL {
+        @Override
+        public InitialPlanStrategy newStrategy(TransportProblem problem) {
+            return new RussellPlanSolver(problem);
+        }
+    };
+
+    /**
+     * Creates plan builder for specified problem.
+     *
+     * @param costMatrix   plan with filled costs, its height and width must be equal
+     *                     with participants consumer and supplier count.
+     * @param participants balanced participants, they are copied to new problem with cost matrix.
+     * @return initial plan strategy.
+     */
+    public InitialPlanStrategy newStrategy(CompactPlan costMatrix, DistributionParticipants participants) {
+        return newStrategy(new TransportProblem(costMatrix, participants));
+    }
+
+    /**
+     * Creates plan builder for specified problem.
+     *
+     * @param problem balanced transportation problem, it is only read by plan builder.
+     * @return initial plan strategy.
+     */
+    public abstract InitialPlanStrategy newStrategy(TransportProblem problem);
+}
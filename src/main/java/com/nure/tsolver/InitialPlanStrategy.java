@@ -0,0 +1,16 @@
+package com.nure.tsolver;
+
+import com.nure.tsolver.model.DistributionPlan;
+
+/**
+ * Heuristic that builds initial distribution plan for potential method. Better initial plan needs fewer
+ * potential method iterations.
+ */
+public interface InitialPlanStrategy {
+    /**
+     * Find initial distribution plan.
+     *
+     * @return built {@code DistributionPlan} where only filled cells are basic.
+     */
+    DistributionPlan findPlan();
+}
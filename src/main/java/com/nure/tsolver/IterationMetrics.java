@@ -0,0 +1,101 @@
+package com.nure.tsolver;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Metrics of potential method iteration. Solver updates one instance in place, listeners must copy
+ * values they want to keep.
+ */
+@Getter
+@ToString
+public class IterationMetrics {
+    /**
+     * Number of finished iterations.
+     */
+    private int iteration;
+    /**
+     * Total distribution cost of plan after iteration.
+     */
+    private long objective;
+    /**
+     * The biggest lower bound of optimal cost known so far, {@code Long.MIN_VALUE} until rule that prices whole
+     * plan is used. For potentials of basis and the biggest potential sum {@code d[i]} of empty cells of every row,
+     * every plan costs at least objective minus sum of row supply multiplied by {@code d[i]}, because no unit of
+     * row supply can be delivered cheaper than its basis price minus {@code d[i]}.
+     */
+    private long lowerBound = Long.MIN_VALUE;
+    /**
+     * Compact plan index of cell that entered basis.
+     */
+    private int enteringCell;
+    /**
+     * Compact plan index of cell that left basis, {@code CompactPlan.NO_CELL} if cell joined degenerate basis.
+     */
+    private int leavingCell;
+    /**
+     * Product quantity moved by cycle.
+     */
+    private int movedQuantity;
+    /**
+     * Time spent by pricing rule to choose entering cell, in nanoseconds.
+     */
+    private long pricingNanos;
+    /**
+     * Time spent to move products by cycle and update basis tree, in nanoseconds.
+     */
+    private long pivotNanos;
+
+    IterationMetrics(long objective) {
+        this(objective, 0);
+    }
+
+    IterationMetrics(long objective, int iteration) {
+        this.objective = objective;
+        this.iteration = iteration;
+    }
+
+    /**
+     * Gets difference between objective and lower bound of optimal cost, it is zero for optimal plan.
+     *
+     * @return optimality gap or {@code Long.MAX_VALUE} if lower bound is not known yet.
+     */
+    public long getOptimalityGap() {
+        if (lowerBound == Long.MIN_VALUE || objective - lowerBound < 0)
+            return Long.MAX_VALUE;
+        return objective - lowerBound;
+    }
+
+    /**
+     * Prepares metrics for next solve of workspace.
+     */
+    void reset(long objective, int iteration) {
+        this.iteration = iteration;
+        this.objective = objective;
+        this.lowerBound = Long.MIN_VALUE;
+        this.enteringCell = 0;
+        this.leavingCell = 0;
+        this.movedQuantity = 0;
+        this.pricingNanos = 0;
+        this.pivotNanos = 0;
+    }
+
+    /**
+     * Raises lower bound of optimal cost if new bound is bigger.
+     */
+    void updateLowerBound(long bound) {
+        if (bound > lowerBound)
+            lowerBound = bound;
+    }
+
+    void update(int enteringCell, int leavingCell, int movedQuantity, long objectiveChange,
+                long pricingNanos, long pivotNanos) {
+        this.iteration++;
+        this.enteringCell = enteringCell;
+        this.leavingCell = leavingCell;
+        this.movedQuantity = movedQuantity;
+        this.objective += objectiveChange;
+        this.pricingNanos = pricingNanos;
+        this.pivotNanos = pivotNanos;
+    }
+}
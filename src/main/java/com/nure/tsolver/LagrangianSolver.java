@@ -0,0 +1,366 @@
+package com.nure.tsolver;
+
+import com.nure.tsolver.model.CompactPlan;
+import com.nure.tsolver.model.DistributionPlan;
+import com.nure.tsolver.model.MultiCommodityPlan;
+import com.nure.tsolver.model.MultiCommodityProblem;
+import com.nure.tsolver.model.SolveStatus;
+import com.nure.tsolver.model.TransportProblem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Lagrangian relaxation of route capacities. Capacity constraint of every limited route gets multiplier, which is
+ * added to tariff of this route for every commodity, so commodities become independent transportation problems,
+ * which are solved concurrently by potential method. Sum of their optimal costs minus sum of multipliers
+ * multiplied by capacities is lower bound of optimal cost. Multipliers are updated by subgradient of route
+ * overload with Polyak step towards cost of the best feasible plan, and step factor is halved when bound stops
+ * growing. Subproblem of next iteration starts from basis of previous one, whose tariffs changed only a little, so
+ * it needs a few pivots.
+ * <p>
+ * Plans of subproblems that respect capacities are feasible plans, plans that overload routes are repaired by
+ * {@code CapacityRepair} when only a few routes are overloaded. The best feasible plan is returned.
+ */
+final class LagrangianSolver {
+    private static final double INITIAL_STEP_FACTOR = 2;
+    private static final int STALL_ITERATIONS = 5;
+    private static final double TARGET_MARGIN = 0.05;
+
+    private final MultiCommodityProblem problem;
+    private final MultiCommodityOptions options;
+    private final SolverOptions subproblemOptions;
+    private final int commoditiesCount;
+
+    private final int[] routeIndexes;
+    private final int[] routeRows;
+    private final int[] routeColumns;
+    private final int[] capacities;
+    private final int[] maxMultipliers;
+    private final double[] multipliers;
+    private final int[] appliedMultipliers;
+    private final long[] loads;
+
+    private final CompactPlan[] basePlans;
+    private final DistributionPlan[] plans;
+    private final int[][] routeCells;
+    private final int[][] appliedCellMultipliers;
+    private final SolverWorkspace[] workspaces;
+    private final PricingRule[] pricingRules;
+    private final CapacityRepair repair;
+
+    private int[][] bestFlows;
+    private long upperBound = Long.MAX_VALUE;
+
+    LagrangianSolver(MultiCommodityProblem problem, MultiCommodityOptions options) {
+        this.problem = problem;
+        this.options = options;
+        this.subproblemOptions = options.getSubproblemOptions();
+        this.commoditiesCount = problem.commoditiesCount();
+
+        long totalSupply = problem.getTotalSupply();
+        int height = problem.getHeight();
+        int width = problem.getWidth();
+        routeIndexes = new int[height * width];
+        int routesCount = 0;
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++)
+                routeIndexes[i * width + j] = problem.getCapacity(i, j) < totalSupply ? routesCount++ : -1;
+        }
+        routeRows = new int[routesCount];
+        routeColumns = new int[routesCount];
+        capacities = new int[routesCount];
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++) {
+                int route = routeIndexes[i * width + j];
+                if (route >= 0) {
+                    routeRows[route] = i;
+                    routeColumns[route] = j;
+                    capacities[route] = problem.getCapacity(i, j);
+                }
+            }
+        }
+        multipliers = new double[routesCount];
+        appliedMultipliers = new int[routesCount];
+        loads = new long[routesCount];
+
+        basePlans = new CompactPlan[commoditiesCount];
+        plans = new DistributionPlan[commoditiesCount];
+        routeCells = new int[commoditiesCount][];
+        appliedCellMultipliers = new int[commoditiesCount][routesCount];
+        workspaces = new SolverWorkspace[commoditiesCount];
+        pricingRules = new PricingRule[commoditiesCount];
+        maxMultipliers = new int[routesCount];
+        Arrays.fill(maxMultipliers, Integer.MAX_VALUE);
+        for (int k = 0; k < commoditiesCount; k++) {
+            basePlans[k] = problem.getCommodity(k).newPlan();
+            for (int route = 0; route < routesCount; route++) {
+                int cell = basePlans[k].index(routeRows[route], routeColumns[route]);
+                if (cell != CompactPlan.NO_CELL) {
+                    int tariff = basePlans[k].getTariff(cell);
+                    maxMultipliers[route] = Math.min(maxMultipliers[route],
+                            tariff > 0 ? Integer.MAX_VALUE - tariff : Integer.MAX_VALUE);
+                }
+            }
+        }
+        repair = new CapacityRepair(problem, basePlans, routeIndexes, routeRows, routeColumns, capacities);
+    }
+
+    MultiCommodityPlan solve() {
+        SolveLimits limits = new SolveLimits().start(options.getTimeLimit(), options.getMaxIterations(),
+                options.getTargetGap(), options.getCancellationToken());
+        long lowerBound = Long.MIN_VALUE;
+        double stepFactor = INITIAL_STEP_FACTOR;
+        int stalledIterations = 0;
+        int iteration = 0;
+        boolean repaired;
+        SolveStatus status;
+        while (true) {
+            solveSubproblems();
+            iteration++;
+            long bound = lagrangianBound();
+            if (bound > lowerBound) {
+                lowerBound = bound;
+                stalledIterations = 0;
+            } else if (++stalledIterations >= STALL_ITERATIONS) {
+                stepFactor /= 2;
+                stalledIterations = 0;
+            }
+            repaired = countLoads() <= problem.getHeight() + problem.getWidth();
+            if (repaired)
+                updateUpperBound();
+
+            long gap = upperBound == Long.MAX_VALUE || lowerBound == Long.MIN_VALUE
+                    ? Long.MAX_VALUE : Math.max(0, upperBound - lowerBound);
+            status = gap == 0 ? SolveStatus.OPTIMAL : limits.check(iteration, System.nanoTime(), gap);
+            if (status != null)
+                break;
+            updateMultipliers(stepFactor);
+        }
+        if (bestFlows == null && !repaired)
+            updateUpperBound();
+        return result(status, lowerBound, iteration);
+    }
+
+    private void solveSubproblems() {
+        if (options.isParallel() && commoditiesCount > 1)
+            options.getPool().invoke(new SubproblemTask(0, commoditiesCount));
+        else {
+            for (int k = 0; k < commoditiesCount; k++)
+                solveSubproblem(k);
+        }
+    }
+
+    /**
+     * Solves subproblem of commodity with current multipliers. The first subproblem is solved from initial plan,
+     * next ones continue potential method from basis of previous subproblem with changed tariffs.
+     */
+    private void solveSubproblem(int commodity) {
+        if (plans[commodity] == null) {
+            TransportProblem commodityProblem = problem.getCommodity(commodity);
+            DistributionPlan initialPlan = subproblemOptions.getInitialPlanMethod().newStrategy(commodityProblem).findPlan();
+            workspaces[commodity] = new SolverWorkspace();
+            pricingRules[commodity] = subproblemOptions.getPricingStrategy().newRule(subproblemOptions);
+            plans[commodity] = initialPlan;
+        } else {
+            applyMultipliers(commodity);
+            pricingRules[commodity].reset();
+        }
+        plans[commodity] = new PotentialPlanSolver(plans[commodity], pricingRules[commodity],
+                subproblemOptions.getListener(), new SolveLimits().start(subproblemOptions), workspaces[commodity])
+                .findOptimalPlan();
+        if (routeCells[commodity] == null)
+            routeCells[commodity] = findRouteCells(plans[commodity].getCompactPlan());
+    }
+
+    /**
+     * Finds cells of limited routes in subproblem plan. Sparse plan with artificial routes has other cell indexes
+     * than plan of problem, so cells are found after the first solve.
+     */
+    private int[] findRouteCells(CompactPlan plan) {
+        int[] cells = new int[capacities.length];
+        for (int route = 0; route < cells.length; route++)
+            cells[route] = plan.index(routeRows[route], routeColumns[route]);
+        return cells;
+    }
+
+    private void applyMultipliers(int commodity) {
+        CompactPlan plan = plans[commodity].getCompactPlan();
+        int[] applied = appliedCellMultipliers[commodity];
+        for (int route = 0; route < appliedMultipliers.length; route++) {
+            int cell = routeCells[commodity][route];
+            if (cell == CompactPlan.NO_CELL || applied[route] == appliedMultipliers[route])
+                continue;
+            plan.setTariff(cell, plan.getTariff(cell) - applied[route] + appliedMultipliers[route]);
+            applied[route] = appliedMultipliers[route];
+        }
+    }
+
+    /**
+     * Counts Lagrangian bound: sum of lower bounds of subproblems minus sum of multipliers multiplied by
+     * capacities.
+     *
+     * @return bound or {@code Long.MIN_VALUE} if bound of some subproblem is not known or sum overflows long.
+     */
+    private long lagrangianBound() {
+        try {
+            long bound = 0;
+            for (DistributionPlan plan : plans) {
+                if (plan.getLowerBound() == Long.MIN_VALUE)
+                    return Long.MIN_VALUE;
+                bound = Math.addExact(bound, plan.getLowerBound());
+            }
+            for (int route = 0; route < capacities.length; route++)
+                bound = Math.subtractExact(bound, Math.multiplyExact((long) appliedMultipliers[route], capacities[route]));
+            return bound;
+        } catch (ArithmeticException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Counts load of every limited route.
+     *
+     * @return count of overloaded routes.
+     */
+    private int countLoads() {
+        int overloadedRoutes = 0;
+        for (int route = 0; route < loads.length; route++) {
+            long load = 0;
+            for (int k = 0; k < commoditiesCount; k++) {
+                int cell = routeCells[k][route];
+                if (cell != CompactPlan.NO_CELL)
+                    load += plans[k].getCompactPlan().getFlow(cell);
+            }
+            loads[route] = load;
+            if (load > capacities[route])
+                overloadedRoutes++;
+        }
+        return overloadedRoutes;
+    }
+
+    /**
+     * Takes flows of subproblems, repairs overloaded routes and keeps flows if they are the cheapest feasible
+     * plan found so far.
+     */
+    private void updateUpperBound() {
+        for (DistributionPlan plan : plans) {
+            if (plan.getCompactPlan().hasArtificialFlow())
+                return;
+        }
+        int[][] flows = subproblemFlows();
+        if (!repair.repair(flows, loads.clone()))
+            return;
+        long cost = 0;
+        for (int k = 0; k < commoditiesCount; k++) {
+            for (int index = 0; index < flows[k].length; index++)
+                cost += (long) basePlans[k].getTariff(index) * flows[k][index];
+        }
+        if (cost < upperBound) {
+            upperBound = cost;
+            bestFlows = flows;
+        }
+    }
+
+    /**
+     * Copies flows of subproblems to arrays of cells of commodity problems, flows of artificial routes are
+     * dropped.
+     */
+    private int[][] subproblemFlows() {
+        int[][] flows = new int[commoditiesCount][];
+        for (int k = 0; k < commoditiesCount; k++) {
+            CompactPlan plan = plans[k].getCompactPlan();
+            flows[k] = new int[basePlans[k].size()];
+            for (int index = plan.nextBasic(0); index >= 0; index = plan.nextBasic(index + 1)) {
+                int cell = plan.size() == basePlans[k].size()
+                        ? index : basePlans[k].index(plan.rowOf(index), plan.columnOf(index));
+                if (cell != CompactPlan.NO_CELL)
+                    flows[k][cell] += plan.getFlow(index);
+            }
+        }
+        return flows;
+    }
+
+    /**
+     * Moves multipliers along projected subgradient, route overload. Step is step factor multiplied by distance
+     * from bound to target cost and divided by squared norm of subgradient. Until feasible plan is found, target is
+     * a little bigger than current bound.
+     */
+    private void updateMultipliers(double stepFactor) {
+        double squaredNorm = 0;
+        for (int route = 0; route < loads.length; route++) {
+            double subgradient = subgradient(route);
+            squaredNorm += subgradient * subgradient;
+        }
+        if (squaredNorm == 0)
+            return;
+        double value = lagrangianValue();
+        double target = upperBound != Long.MAX_VALUE
+                ? upperBound : value + Math.max(1, Math.abs(value) * TARGET_MARGIN);
+        double step = stepFactor * Math.max(target - value, 1) / squaredNorm;
+        for (int route = 0; route < loads.length; route++) {
+            double multiplier = multipliers[route] + step * subgradient(route);
+            multipliers[route] = Math.min(Math.max(0, multiplier), maxMultipliers[route]);
+            appliedMultipliers[route] = (int) Math.round(multipliers[route]);
+        }
+    }
+
+    private double subgradient(int route) {
+        long overload = loads[route] - capacities[route];
+        return overload < 0 && multipliers[route] == 0 ? 0 : overload;
+    }
+
+    private double lagrangianValue() {
+        double value = 0;
+        for (DistributionPlan plan : plans)
+            value += plan.countMoney();
+        for (int route = 0; route < capacities.length; route++)
+            value -= (double) appliedMultipliers[route] * capacities[route];
+        return value;
+    }
+
+    /**
+     * Builds plans of commodities with their own tariffs from the best feasible flows or, if there are no
+     * feasible flows, from the last subproblems.
+     */
+    private MultiCommodityPlan result(SolveStatus status, long lowerBound, int iterationsCount) {
+        int[][] flows = bestFlows != null ? bestFlows : subproblemFlows();
+        List<DistributionPlan> result = new ArrayList<>(commoditiesCount);
+        for (int k = 0; k < commoditiesCount; k++) {
+            TransportProblem commodity = problem.getCommodity(k);
+            CompactPlan plan = commodity.newPlan();
+            for (int index = 0; index < plan.size(); index++) {
+                if (flows[k][index] > 0)
+                    plan.setBasic(index, flows[k][index]);
+            }
+            result.add(new DistributionPlan(plan, commodity.newParticipants()));
+        }
+        return new MultiCommodityPlan(result, bestFlows != null, status, lowerBound, iterationsCount);
+    }
+
+    /**
+     * Solves subproblems of commodity range, range is split in halves until one commodity is left.
+     */
+    @SuppressWarnings("serial")
+    private class SubproblemTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        SubproblemTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                solveSubproblem(from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SubproblemTask(from, middle), new SubproblemTask(middle, to));
+        }
+    }
+}
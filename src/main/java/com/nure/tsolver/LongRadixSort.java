@@ -0,0 +1,72 @@
+package com.nure.tsolver;
+
+import java.util.Arrays;
+
+/**
+ * Sort of signed long keys by bytes, from the lowest byte to the highest. Byte that is equal in all keys is
+ * skipped, so keys of small tariffs and indexes take few passes. Buffer and counts are kept between sorts, so sort
+ * of the same count of keys allocates nothing, unlike {@code Arrays.sort} of long arrays, which allocates run array
+ * for every big array.
+ */
+final class LongRadixSort {
+    private static final int BITS = 8;
+    private static final int RADIX = 1 << BITS;
+    private static final int MASK = RADIX - 1;
+    private static final int SMALL_COUNT = 256;
+
+    private final int[] counts = new int[RADIX];
+    private long[] buffer;
+
+    /**
+     * Sorts first keys of array in ascending order.
+     *
+     * @param keys  array with keys.
+     * @param count count of keys from array start.
+     */
+    void sort(long[] keys, int count) {
+        if (count < SMALL_COUNT) {
+            Arrays.sort(keys, 0, count);
+            return;
+        }
+        if (buffer == null || buffer.length < count)
+            buffer = new long[count];
+        long[] source = keys;
+        long[] target = buffer;
+        for (int shift = 0; shift < Long.SIZE; shift += BITS) {
+            if (countDigits(source, count, shift))
+                continue;
+            for (int digit = 0, position = 0; digit < RADIX; digit++) {
+                int digitCount = counts[digit];
+                counts[digit] = position;
+                position += digitCount;
+            }
+            for (int k = 0; k < count; k++)
+                target[counts[digit(source[k], shift)]++] = source[k];
+            long[] sorted = target;
+            target = source;
+            source = sorted;
+        }
+        if (source != keys)
+            System.arraycopy(source, 0, keys, 0, count);
+    }
+
+    /**
+     * Counts keys by digit of byte.
+     *
+     * @return true if all keys have the same digit and byte can be skipped.
+     */
+    private boolean countDigits(long[] keys, int count, int shift) {
+        Arrays.fill(counts, 0);
+        for (int k = 0; k < count; k++)
+            counts[digit(keys[k], shift)]++;
+        return counts[digit(keys[0], shift)] == count;
+    }
+
+    /**
+     * Gets byte of key as digit, sign bit of the highest byte is inverted, so negative keys go first.
+     */
+    private static int digit(long key, int shift) {
+        int digit = (int) (key >>> shift) & MASK;
+        return shift == Long.SIZE - BITS ? digit ^ (RADIX >>> 1) : digit;
+    }
+}
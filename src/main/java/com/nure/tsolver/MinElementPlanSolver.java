@@ -1,111 +1,112 @@
 package com.nure.tsolver;
 
-import com.nure.tsolver.model.DistributionCell;
+import com.nure.tsolver.model.CompactPlan;
 import com.nure.tsolver.model.DistributionParticipants;
 import com.nure.tsolver.model.DistributionPlan;
-
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import com.nure.tsolver.model.TransportProblem;
 
 /**
  * Class that contain logic for building initial distribution plan using minimal element algorithm
  */
-public class MinElementPlanSolver {
-    private DistributionCell[][] costMatrix;
-    private DistributionParticipants participants;
+public class MinElementPlanSolver implements InitialPlanStrategy {
+    private static final long INDEX_MASK = 0xFFFFFFFFL;
+
+    private TransportProblem problem;
+    private final SolverWorkspace workspace;
+    private CompactPlan costMatrix;
 
     /**
-     * Construct plan builder from cell matrix and participants.
+     * Construct plan builder from compact plan with tariffs and balanced participants, both are copied to new
+     * problem.
      *
-     * @param costMatrix   matrix with filled costs, its height and width must be equal
+     * @param costMatrix   plan with filled costs, its height and width must be equal
      *                     with participants consumer and supplier count.
      * @param participants not empty participants instance.
      */
-    public MinElementPlanSolver(DistributionCell[][] costMatrix, DistributionParticipants participants) {
-        this.costMatrix = Arrays.stream(costMatrix).map(DistributionCell[]::clone).toArray(e -> costMatrix.clone());
-        this.participants = participants.clone();
+    public MinElementPlanSolver(CompactPlan costMatrix, DistributionParticipants participants) {
+        this(new TransportProblem(costMatrix, participants));
     }
 
     /**
-     * Find initial distribution plan using minimal element algorithm. Cells with cheapest distribution
-     * cost will be filled first. Product quantity that will be set in cell depend on current demand and supply for
-     * this cell.
-     * @return built {@code DistributionPlan} where empty cells filled by empty placeholder.
+     * Construct plan builder for problem, problem is only read, so it may be shared with other solves.
+     *
+     * @param problem balanced transportation problem.
      */
-    public DistributionPlan findPlan() {
-        DistributionParticipants originalParticipants = participants.clone();
-        List<DistributionCell> cells = new ArrayList<>();
-        for (int i = 0; i < costMatrix.length; i++) {
-            cells.addAll(Arrays.asList(costMatrix[i]));
-        }
-
-        while (cells.size() > 0) {
-            DistributionCell cell = findLowCostCell(cells);
-            if (participants.getSupplierSupply(cell.getX()) > 0 && participants.getConsumerDemand(cell.getY()) > 0) {
-                if (participants.getConsumerDemand(cell.getY()) < participants.getSupplierSupply(cell.getX())) {
-                    subtractAllConsume(cell);
-                } else {
-                    subtractAllSupply(cell);
-                }
-            }
-            cells.remove(cell);
-        }
-
-        fillEmptyFullnessByPlaceholder();
-
-        return new DistributionPlan(costMatrix, originalParticipants);
+    public MinElementPlanSolver(TransportProblem problem) {
+        this(problem, new SolverWorkspace());
     }
 
     /**
-     * Subtracts all available participant demand, set it as zero and updates participant supply.
-     *
-     * @param cell
+     * Construct plan builder whose plan, remainder arrays and result plan are taken from workspace.
      */
-    private void subtractAllConsume(DistributionCell cell) {
-        cell.setFullness(participants.getConsumerDemand(cell.getY()));
-        participants.setSupplierSupply(cell.getX(),
-                participants.getSupplierSupply(cell.getX()) - participants.getConsumerDemand(cell.getY()));
-        participants.setConsumerDemand(cell.getY(), 0);
+    MinElementPlanSolver(TransportProblem problem, SolverWorkspace workspace) {
+        this.problem = problem;
+        this.workspace = workspace;
     }
 
     /**
-     * Subtracts all available participant supply, set it as zero and updates participant demand.
-     *
-     * @param cell
+     * Prepares plan builder of workspace for next problem.
      */
-    private void subtractAllSupply(DistributionCell cell) {
-        cell.setFullness(participants.getSupplierSupply(cell.getX()));
-        participants.setConsumerDemand(cell.getY(),
-                participants.getConsumerDemand(cell.getY()) - participants.getSupplierSupply(cell.getX()));
-        participants.setSupplierSupply(cell.getX(), 0);
+    void reset(TransportProblem problem) {
+        this.problem = problem;
     }
 
     /**
-     * Find cell in list with lowest distribution price.
-     * @param list not empty list with cells.
-     * @return cell with lowest distribution price.
+     * Find initial distribution plan using minimal element algorithm. Cells with cheapest distribution
+     * cost will be filled first. Product quantity that will be set in cell depend on current demand and supply for
+     * this cell.
+     * All cells are sorted once by tariff (equal tariffs by index), then walked in this order, cells of
+     * exhausted rows and columns are skipped by supply and demand check.
+     * Sparse plan contains only allowed routes, if they can not take all supply, the rest is placed on basic
+     * artificial routes.
+     * @return built {@code DistributionPlan} where only filled cells are basic.
      */
-    private DistributionCell findLowCostCell(List<DistributionCell> list) {
-        DistributionCell minCell = list.get(0);
-        for (DistributionCell distributionCell : list) {
-            if (distributionCell.getTariffCost() < minCell.getTariffCost()) {
-                minCell = distributionCell;
-            }
+    @Override
+    public DistributionPlan findPlan() {
+        costMatrix = workspace.plan(problem);
+        int[] supply = workspace.supply(costMatrix.getHeight());
+        int[] demand = workspace.demand(costMatrix.getWidth());
+        int activeRows = 0;
+        for (int i = 0; i < supply.length; i++) {
+            supply[i] = problem.getSupply(i);
+            if (supply[i] > 0)
+                activeRows++;
+        }
+        for (int j = 0; j < demand.length; j++)
+            demand[j] = problem.getDemand(j);
+
+        long[] cells = sortCellsByTariff();
+        for (int k = 0; k < costMatrix.size() && activeRows > 0; k++) {
+            int cell = (int) (cells[k] & INDEX_MASK);
+            int row = costMatrix.rowOf(cell);
+            int column = costMatrix.columnOf(cell);
+            if (supply[row] == 0 || demand[column] == 0)
+                continue;
+            int amount = Math.min(supply[row], demand[column]);
+            costMatrix.setBasic(cell, amount);
+            supply[row] -= amount;
+            demand[column] -= amount;
+            if (supply[row] == 0)
+                activeRows--;
         }
-        return minCell;
+        if (activeRows > 0)
+            costMatrix = ArtificialRoutes.place(costMatrix, supply, demand, true);
+
+        return workspace.distributionPlan(costMatrix, problem);
     }
 
     /**
-     * Fill cells with zero fullness of {@code DistributionCell} matrix by empty placeholder.
+     * Packs tariff and index of every cell to one number, tariff in high bits and index in low bits, and sorts them.
+     * @return cells ordered by tariff, cells with equal tariff ordered by index, array may be longer than count
+     * of cells.
      */
-    private void fillEmptyFullnessByPlaceholder() {
-        for (int i = 0; i < costMatrix.length; i++) {
-            for (int j = 0; j < costMatrix[0].length; j++) {
-                if (costMatrix[i][j].getFullness() == 0)
-                    costMatrix[i][j].setFullnessEmpty();
-            }
+    private long[] sortCellsByTariff() {
+        int size = costMatrix.size();
+        long[] cells = workspace.cells(size);
+        for (int index = 0; index < size; index++) {
+            cells[index] = ((long) costMatrix.getTariff(index) << 32) | index;
         }
+        workspace.cellSort().sort(cells, size);
+        return cells;
     }
 }
-
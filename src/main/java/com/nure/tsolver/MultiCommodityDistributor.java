@@ -0,0 +1,58 @@
+package com.nure.tsolver;
+
+import com.nure.tsolver.model.DistributionParticipants;
+import com.nure.tsolver.model.MultiCommodityPlan;
+import com.nure.tsolver.model.MultiCommodityProblem;
+
+import java.util.List;
+
+/**
+ * Distributor of several commodities that share capacities of routes. Problem is decomposed by Lagrangian
+ * relaxation of capacities into single-commodity problems, which are solved by potential method in parallel,
+ * see {@code LagrangianSolver}.
+ */
+public class MultiCommodityDistributor {
+    private final MultiCommodityProblem problem;
+    private final MultiCommodityOptions options;
+
+    /**
+     * Constructs distributor from cost matrices of commodities with default options.
+     *
+     * @param costArrays   cost matrix of every commodity.
+     * @param participants participants of every commodity in order of cost matrices.
+     * @param capacities   capacity of every route, {@code MultiCommodityProblem.UNLIMITED} if route is not limited.
+     */
+    public MultiCommodityDistributor(List<int[][]> costArrays, List<DistributionParticipants> participants,
+                                     int[][] capacities) {
+        this(MultiCommodityProblem.fromCostArrays(costArrays, participants, capacities),
+                MultiCommodityOptions.defaults());
+    }
+
+    /**
+     * Constructs distributor of problem.
+     *
+     * @param problem multi-commodity problem, it is not copied.
+     * @param options decomposition options.
+     */
+    public MultiCommodityDistributor(MultiCommodityProblem problem, MultiCommodityOptions options) {
+        this.problem = problem;
+        this.options = options;
+    }
+
+    /**
+     * Finds plans of all commodities whose total flows fit into route capacities. Every iteration solves
+     * subproblems of commodities with tariffs raised by multipliers of limited routes, and lower bound of optimal
+     * cost grows with iterations. Solve stops when lower bound reaches cost of the best feasible plan or on limits
+     * of options.
+     *
+     * @return the cheapest feasible plans found with lower bound of optimal cost, or plans of the last subproblems
+     * if no feasible plans were found, see {@code MultiCommodityPlan.isFeasible()}.
+     */
+    public MultiCommodityPlan distribute() {
+        return new LagrangianSolver(problem, options).solve();
+    }
+
+    public MultiCommodityProblem getProblem() {
+        return problem;
+    }
+}
@@ -0,0 +1,61 @@
+package com.nure.tsolver;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Options of multi-commodity solve by Lagrangian decomposition. Default options make 100 iterations and solve
+ * subproblems of commodities in parallel.
+ */
+@Getter
+@Builder
+public class MultiCommodityOptions {
+    /**
+     * Options of single-commodity subproblems. Subproblems are always solved by potential method, so only initial
+     * plan method, pricing options, listener and solve limits of one subproblem are used. Listener is called from
+     * pool threads when subproblems are solved in parallel.
+     */
+    @Builder.Default
+    private final SolverOptions subproblemOptions = SolverOptions.defaults();
+    /**
+     * Max count of decomposition iterations, plan after them is returned with {@code SolveStatus.ITERATION_LIMIT}.
+     */
+    @Builder.Default
+    private final int maxIterations = 100;
+    /**
+     * Time limit of whole solve, no limit by default. It is checked between iterations, so solve may take one
+     * iteration longer.
+     */
+    private final Duration timeLimit;
+    /**
+     * Optimality gap in tariff units that is good enough, zero means that solve stops only when lower bound reaches
+     * cost of the best feasible plan.
+     */
+    private final long targetGap;
+    /**
+     * Token that stops solve from other thread between iterations.
+     */
+    private final CancellationToken cancellationToken;
+    /**
+     * Solves subproblems of commodities in parallel.
+     */
+    @Builder.Default
+    private final boolean parallel = true;
+    /**
+     * Pool for parallel subproblems.
+     */
+    @Builder.Default
+    private final ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    /**
+     * Gets options with all default values.
+     *
+     * @return default options.
+     */
+    public static MultiCommodityOptions defaults() {
+        return MultiCommodityOptions.builder().build();
+    }
+}
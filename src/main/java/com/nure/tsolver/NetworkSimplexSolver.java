@@ -0,0 +1,444 @@
+package com.nure.tsolver;
+
+import com.nure.tsolver.model.CompactPlan;
+import com.nure.tsolver.model.DistributionPlan;
+import com.nure.tsolver.model.TransportProblem;
+
+/**
+ * Primal network simplex engine. Transportation problem is a flow network where every supplier row and every
+ * consumer column is a node and every plan cell is an arc from supplier to consumer without capacity limit.
+ * Additional root node is connected with every node by artificial arc, so initial spanning tree is a star that
+ * carries all supply through root with big tariff.
+ * <p>
+ * Tree is stored by parent, thread (preorder) and subtree size of every node, so cycle search, flow change and
+ * potential update touch only nodes of changed subtree. Tree is kept strongly feasible: leaving arc is the last
+ * blocking arc of cycle in its direction, so degenerate pivots do not cycle. Entering arc is chosen by block
+ * search: arcs are priced in blocks of about square root of arc count and the best arc of first block with
+ * negative reduced cost enters.
+ * <p>
+ * Listener gets only {@code onFinish}, because engine does not build {@code BasisTree}.
+ */
+public class NetworkSimplexSolver implements TransportSolver {
+    private static final int MIN_BLOCK_SIZE = 10;
+    private static final int DIR_UP = 1;
+    private static final int DIR_DOWN = -1;
+    private static final int NO_NODE = -1;
+
+    private final SolverListener listener;
+
+    private CompactPlan plan;
+    private int height;
+    private int arcsCount;
+    private int nodesCount;
+    private int root;
+
+    private int[] artificialSource;
+    private int[] artificialTarget;
+    private int[] artificialFlow;
+    private long[] artificialCost;
+
+    private long[] potentials;
+    private int[] parent;
+    private int[] pred;
+    private int[] predDir;
+    private int[] thread;
+    private int[] revThread;
+    private int[] succNum;
+    private int[] lastSucc;
+    private int[] dirtyRevs;
+
+    private int blockSize;
+    private int nextArc;
+    private int nextRow;
+
+    private int inArc;
+    private int join;
+    private int uIn;
+    private int vIn;
+    private int uOut;
+    private int delta;
+
+    /**
+     * Constructs engine without listener.
+     */
+    public NetworkSimplexSolver() {
+        this(SolverListener.NO_OP);
+    }
+
+    /**
+     * Constructs engine with specified listener.
+     *
+     * @param listener listener of solve finish.
+     */
+    public NetworkSimplexSolver(SolverListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Finds optimal plan by network simplex. Basic cells of result are real arcs of final spanning tree, arcs to
+     * root are not part of plan, so basis of degenerate plan is completed by empty cells up to
+     * {@code height + width - 1} cells, as bases of other engines are.
+     *
+     * @throws IllegalArgumentException if sparse plan has no feasible distribution by its allowed routes or costs
+     *                                  may overflow long.
+     */
+    @Override
+    public DistributionPlan solve(TransportProblem problem) {
+        plan = problem.newPlan();
+        CostBounds.checkTotalCost(plan, problem.getTotalSupply(), 2L * (plan.getHeight() + plan.getWidth() + 2));
+        IterationMetrics metrics = new IterationMetrics(init(problem));
+
+        long pricingStart = System.nanoTime();
+        while (findEnteringArc()) {
+            long pivotStart = System.nanoTime();
+            long reducedCost = reducedCost(inArc);
+            findJoinNode();
+            findLeavingArc();
+            int leavingArc = pred[uOut];
+            changeFlow(leavingArc);
+            updateTreeStructure();
+            updatePotential();
+            long pivotEnd = System.nanoTime();
+            metrics.update(inArc, leavingArc < arcsCount ? leavingArc : CompactPlan.NO_CELL, delta,
+                    delta * reducedCost, pivotStart - pricingStart, pivotEnd - pivotStart);
+            pricingStart = System.nanoTime();
+        }
+
+        for (int flow : artificialFlow) {
+            if (flow > 0)
+                throw new IllegalArgumentException("Supply can not be delivered to consumers by allowed routes");
+        }
+        new BasisTree(plan).connectComponents();
+        DistributionPlan distributionPlan = new DistributionPlan(plan, problem.newParticipants());
+        distributionPlan.setIterationsCount(metrics.getIteration());
+        listener.onFinish(distributionPlan, metrics);
+        return distributionPlan;
+    }
+
+    /**
+     * Builds initial star tree. Arc of supplier goes to root with zero tariff, arc of consumer goes from root with
+     * big tariff, so potentials of all tree arcs are consistent.
+     *
+     * @return cost of initial flow.
+     */
+    private long init(TransportProblem problem) {
+        height = plan.getHeight();
+        arcsCount = plan.size();
+        nodesCount = height + plan.getWidth();
+        root = nodesCount;
+
+        int[] supply = new int[nodesCount];
+        for (int i = 0; i < height; i++)
+            supply[i] = problem.getSupply(i);
+        for (int j = 0; j < plan.getWidth(); j++)
+            supply[height + j] = -problem.getDemand(j);
+
+        artificialSource = new int[nodesCount];
+        artificialTarget = new int[nodesCount];
+        artificialFlow = new int[nodesCount];
+        artificialCost = new long[nodesCount];
+        potentials = new long[nodesCount + 1];
+        parent = new int[nodesCount + 1];
+        pred = new int[nodesCount + 1];
+        predDir = new int[nodesCount + 1];
+        thread = new int[nodesCount + 1];
+        revThread = new int[nodesCount + 1];
+        succNum = new int[nodesCount + 1];
+        lastSucc = new int[nodesCount + 1];
+        dirtyRevs = new int[nodesCount + 1];
+
+        parent[root] = NO_NODE;
+        pred[root] = NO_NODE;
+        thread[root] = 0;
+        revThread[0] = root;
+        succNum[root] = nodesCount + 1;
+        lastSucc[root] = root - 1;
+        potentials[root] = 0;
+
+        long bigCost = bigCost();
+        long objective = 0;
+        for (int u = 0; u < nodesCount; u++) {
+            parent[u] = root;
+            pred[u] = arcsCount + u;
+            thread[u] = u + 1;
+            revThread[u + 1] = u;
+            succNum[u] = 1;
+            lastSucc[u] = u;
+            if (supply[u] >= 0) {
+                predDir[u] = DIR_UP;
+                potentials[u] = 0;
+                artificialSource[u] = u;
+                artificialTarget[u] = root;
+                artificialFlow[u] = supply[u];
+            } else {
+                predDir[u] = DIR_DOWN;
+                potentials[u] = bigCost;
+                artificialSource[u] = root;
+                artificialTarget[u] = u;
+                artificialFlow[u] = -supply[u];
+                artificialCost[u] = bigCost;
+                objective += bigCost * -supply[u];
+            }
+        }
+
+        blockSize = Math.max((int) Math.ceil(Math.sqrt(arcsCount)), MIN_BLOCK_SIZE);
+        nextArc = 0;
+        nextRow = 0;
+        return objective;
+    }
+
+    /**
+     * Tariff of artificial arcs, it is bigger than cost of any path of real arcs.
+     */
+    private long bigCost() {
+        long minTariff = 0;
+        long maxTariff = 0;
+        for (int index = 0; index < arcsCount; index++) {
+            minTariff = Math.min(minTariff, plan.getTariff(index));
+            maxTariff = Math.max(maxTariff, plan.getTariff(index));
+        }
+        return maxTariff + (maxTariff - minTariff + 1) * (nodesCount + 1);
+    }
+
+    /**
+     * Block search over plan cells starting from the place where previous search stopped.
+     *
+     * @return true if arc with negative reduced cost was found.
+     */
+    private boolean findEnteringArc() {
+        long min = 0;
+        int count = blockSize;
+        int row = nextRow;
+        int rowStart = height == 0 ? 0 : plan.rowStart(row);
+        int rowEnd = height == 0 ? 0 : plan.rowEnd(row);
+        int e = nextArc;
+        for (int k = 0; k < arcsCount; k++, e++) {
+            if (e == arcsCount) {
+                e = 0;
+                row = 0;
+                rowStart = plan.rowStart(row);
+                rowEnd = plan.rowEnd(row);
+            }
+            while (e >= rowEnd) {
+                row++;
+                rowStart = plan.rowStart(row);
+                rowEnd = plan.rowEnd(row);
+            }
+            if (!plan.isBasic(e)) {
+                long cost = plan.getTariff(e) + potentials[row] - potentials[height + plan.columnOf(e, rowStart)];
+                if (cost < min) {
+                    min = cost;
+                    inArc = e;
+                }
+            }
+            if (--count == 0) {
+                if (min < 0) {
+                    nextArc = e + 1;
+                    nextRow = row;
+                    return true;
+                }
+                count = blockSize;
+            }
+        }
+        if (min < 0) {
+            nextArc = e == arcsCount ? 0 : e;
+            nextRow = e == arcsCount ? 0 : row;
+            return true;
+        }
+        return false;
+    }
+
+    private void findJoinNode() {
+        int i = source(inArc);
+        int j = target(inArc);
+        while (i != j) {
+            if (succNum[i] < succNum[j])
+                i = parent[i];
+            else
+                j = parent[j];
+        }
+        join = i;
+    }
+
+    /**
+     * Finds the last blocking arc of cycle in direction of flow change. Flow goes from join to entering arc
+     * source, through entering arc and from its target back to join. Only arcs directed against flow can block.
+     */
+    private void findLeavingArc() {
+        int first = source(inArc);
+        int second = target(inArc);
+        delta = Integer.MAX_VALUE;
+        int result = 0;
+        for (int u = first; u != join; u = parent[u]) {
+            if (predDir[u] == DIR_UP && flow(pred[u]) < delta) {
+                delta = flow(pred[u]);
+                uOut = u;
+                result = 1;
+            }
+        }
+        for (int u = second; u != join; u = parent[u]) {
+            if (predDir[u] == DIR_DOWN && flow(pred[u]) <= delta) {
+                delta = flow(pred[u]);
+                uOut = u;
+                result = 2;
+            }
+        }
+        if (result == 0)
+            throw new IllegalStateException("Cycle of transportation problem must have blocking arc");
+        if (result == 1) {
+            uIn = first;
+            vIn = second;
+        } else {
+            uIn = second;
+            vIn = first;
+        }
+    }
+
+    private void changeFlow(int leavingArc) {
+        if (delta > 0) {
+            for (int u = source(inArc); u != join; u = parent[u])
+                setFlow(pred[u], flow(pred[u]) - predDir[u] * delta);
+            for (int u = target(inArc); u != join; u = parent[u])
+                setFlow(pred[u], flow(pred[u]) + predDir[u] * delta);
+        }
+        plan.setBasic(inArc, delta);
+        if (leavingArc < arcsCount)
+            plan.setNonBasic(leavingArc);
+    }
+
+    /**
+     * Replaces leaving arc by entering one: subtree of {@code uOut} is re-hung on {@code vIn} through
+     * {@code uIn}, nodes on the stem between {@code uIn} and {@code uOut} are reversed.
+     */
+    private void updateTreeStructure() {
+        int oldRevThread = revThread[uOut];
+        int oldSuccNum = succNum[uOut];
+        int oldLastSucc = lastSucc[uOut];
+        int vOut = parent[uOut];
+
+        if (uIn == uOut) {
+            parent[uIn] = vIn;
+            pred[uIn] = inArc;
+            predDir[uIn] = uIn == source(inArc) ? DIR_UP : DIR_DOWN;
+
+            if (thread[vIn] != uOut) {
+                int after = thread[oldLastSucc];
+                thread[oldRevThread] = after;
+                revThread[after] = oldRevThread;
+                after = thread[vIn];
+                thread[vIn] = uOut;
+                revThread[uOut] = vIn;
+                thread[oldLastSucc] = after;
+                revThread[after] = oldLastSucc;
+            }
+        } else {
+            int threadContinue = oldRevThread == vIn ? thread[oldLastSucc] : thread[vIn];
+
+            int stem = uIn;
+            int parentStem = vIn;
+            int last = lastSucc[uIn];
+            int after = thread[last];
+            thread[vIn] = uIn;
+            int dirtyRevsCount = 0;
+            dirtyRevs[dirtyRevsCount++] = vIn;
+            while (stem != uOut) {
+                int nextStem = parent[stem];
+                thread[last] = nextStem;
+                dirtyRevs[dirtyRevsCount++] = last;
+
+                int before = revThread[stem];
+                thread[before] = after;
+                revThread[after] = before;
+
+                parent[stem] = parentStem;
+                parentStem = stem;
+                stem = nextStem;
+
+                last = lastSucc[stem] == lastSucc[parentStem] ? revThread[parentStem] : lastSucc[stem];
+                after = thread[last];
+            }
+            parent[uOut] = parentStem;
+            thread[last] = threadContinue;
+            revThread[threadContinue] = last;
+            lastSucc[uOut] = last;
+
+            if (oldRevThread != vIn) {
+                thread[oldRevThread] = after;
+                revThread[after] = oldRevThread;
+            }
+
+            for (int k = 0; k < dirtyRevsCount; k++) {
+                int u = dirtyRevs[k];
+                revThread[thread[u]] = u;
+            }
+
+            int stemSuccNum = 0;
+            int stemLastSucc = lastSucc[uOut];
+            for (int u = uOut, p = parent[u]; u != uIn; u = p, p = parent[u]) {
+                pred[u] = pred[p];
+                predDir[u] = -predDir[p];
+                stemSuccNum += succNum[u] - succNum[p];
+                succNum[u] = stemSuccNum;
+                lastSucc[p] = stemLastSucc;
+            }
+            pred[uIn] = inArc;
+            predDir[uIn] = uIn == source(inArc) ? DIR_UP : DIR_DOWN;
+            succNum[uIn] = oldSuccNum;
+        }
+
+        int upLimitOut = lastSucc[join] == vIn ? join : NO_NODE;
+        int lastSuccOut = lastSucc[uOut];
+        for (int u = vIn; u != NO_NODE && lastSucc[u] == vIn; u = parent[u])
+            lastSucc[u] = lastSuccOut;
+
+        if (join != oldRevThread && vIn != oldRevThread) {
+            for (int u = vOut; u != upLimitOut && lastSucc[u] == oldLastSucc; u = parent[u])
+                lastSucc[u] = oldRevThread;
+        } else if (lastSuccOut != oldLastSucc) {
+            for (int u = vOut; u != upLimitOut && lastSucc[u] == oldLastSucc; u = parent[u])
+                lastSucc[u] = lastSuccOut;
+        }
+
+        for (int u = vIn; u != join; u = parent[u])
+            succNum[u] += oldSuccNum;
+        for (int u = vOut; u != join; u = parent[u])
+            succNum[u] -= oldSuccNum;
+    }
+
+    /**
+     * Shifts potentials of re-hung subtree, so reduced cost of entering arc becomes zero.
+     */
+    private void updatePotential() {
+        long sigma = potentials[vIn] - potentials[uIn] - predDir[uIn] * (long) plan.getTariff(inArc);
+        int end = thread[lastSucc[uIn]];
+        for (int u = uIn; u != end; u = thread[u])
+            potentials[u] += sigma;
+    }
+
+    private long reducedCost(int arc) {
+        return cost(arc) + potentials[source(arc)] - potentials[target(arc)];
+    }
+
+    private int source(int arc) {
+        return arc < arcsCount ? plan.rowOf(arc) : artificialSource[arc - arcsCount];
+    }
+
+    private int target(int arc) {
+        return arc < arcsCount ? height + plan.columnOf(arc) : artificialTarget[arc - arcsCount];
+    }
+
+    private long cost(int arc) {
+        return arc < arcsCount ? plan.getTariff(arc) : artificialCost[arc - arcsCount];
+    }
+
+    private int flow(int arc) {
+        return arc < arcsCount ? plan.getFlow(arc) : artificialFlow[arc - arcsCount];
+    }
+
+    private void setFlow(int arc, int flow) {
+        if (arc < arcsCount)
+            plan.setFlow(arc, flow);
+        else
+            artificialFlow[arc - arcsCount] = flow;
+    }
+}
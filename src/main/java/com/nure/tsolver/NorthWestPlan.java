@@ -1,67 +1,65 @@
 package com.nure.tsolver;
 
-import com.nure.tsolver.model.*;
+import com.nure.tsolver.model.CompactPlan;
+import com.nure.tsolver.model.DistributionParticipants;
+import com.nure.tsolver.model.DistributionPlan;
+import com.nure.tsolver.model.TransportProblem;
 
-import java.util.Arrays;
-
-
-public class NorthWestPlan {
-    private DistributionCell[][] costMatrix;
-    private DistributionParticipants participants;
+/**
+ * Class that contain logic for building initial distribution plan using north-west corner algorithm
+ */
+public class NorthWestPlan implements InitialPlanStrategy {
+    private final TransportProblem problem;
+    private CompactPlan costMatrix;
 
     /**
-     * Construct plan builder from cell matrix and participants.
+     * Construct plan builder from compact plan with tariffs and balanced participants, both are copied to new
+     * problem.
      *
-     * @param costMatrix   matrix with filled costs, its height and width must be equal
+     * @param costMatrix   dense plan with filled costs, its height and width must be equal
      *                     with participants consumer and supplier count.
      * @param participants not empty participants instance.
      */
-    public NorthWestPlan(DistributionCell[][] costMatrix, DistributionParticipants participants) {
-        this.costMatrix = Arrays.stream(costMatrix).map(DistributionCell[]::clone).toArray(e -> costMatrix.clone());
-        this.participants = participants.clone();
+    public NorthWestPlan(CompactPlan costMatrix, DistributionParticipants participants) {
+        this(new TransportProblem(costMatrix, participants));
     }
 
     /**
-     * Find initial distribution plan using minimal element algorithm. Cells with cheapest distribution
-     * cost will be filled first. Product quantity that will be set in cell depend on current demand and supply for
-     * this cell.
+     * Construct plan builder for problem, problem is only read, so it may be shared with other solves.
      *
-     * @return built {@code DistributionPlan} where empty cells filled by empty placeholder.
+     * @param problem balanced transportation problem with dense plan.
      */
-    DistributionPlan findPlan() {
-        DistributionParticipants originalParticipants = participants.clone();
-        Consumer[] consumers = new Consumer[participants.consumersCount()];
-        System.arraycopy(participants.getConsumers(), 0, consumers, 0,consumers.length);
-        Supplier[] suppliers = new Supplier[participants.suppliersCount()];
-        System.arraycopy(participants.getSuppliers(), 0, suppliers, 0,suppliers.length);
-        for (int i = 0; i <costMatrix.length ; i++) {
-            for (int j = 0; j < costMatrix[0].length; j++) {
-                if(consumers[j].getDemand()==0) continue;
-                int min = Math.min(consumers[j].getDemand(), suppliers[i].getSupply());
-                costMatrix[i][j].setFullness(min);
-                consumers[j].subDemand(min);
-                suppliers[i].subSupply(min);
-                if(suppliers[i].getSupply()==0) break;
-            }
-        }
-        fillEmptyFullnessByPlaceholder();
-        DistributionPlan plan = new DistributionPlan(costMatrix, originalParticipants);
-
-        plan.printPlan();
-        return plan;
+    public NorthWestPlan(TransportProblem problem) {
+        if (problem.isSparse())
+            throw new IllegalArgumentException("Sparse plan is supported only by minimal element algorithm");
+        this.problem = problem;
     }
 
     /**
-     * Fill cells with zero fullness of {@code DistributionCell} matrix by empty placeholder.
+     * Find initial distribution plan using north-west corner algorithm. Cells are filled row by row starting from
+     * top left corner, tariffs are not taken into account. Product quantity that will be set in cell depend on
+     * current demand and supply for this cell.
+     *
+     * @return built {@code DistributionPlan} where only filled cells are basic.
      */
-    private void fillEmptyFullnessByPlaceholder() {
-        for (DistributionCell[] matrix : costMatrix) {
-            for (int j = 0; j < costMatrix[0].length; j++) {
-                if (matrix[j].getFullness() == 0)
-                    matrix[j].setFullnessEmpty();
+    @Override
+    public DistributionPlan findPlan() {
+        costMatrix = problem.newPlan();
+        int[] supply = new int[costMatrix.getHeight()];
+        int[] demand = new int[costMatrix.getWidth()];
+        for (int i = 0; i < supply.length; i++)
+            supply[i] = problem.getSupply(i);
+        for (int j = 0; j < demand.length; j++)
+            demand[j] = problem.getDemand(j);
+        for (int i = 0; i < supply.length; i++) {
+            for (int j = 0; j < demand.length && supply[i] > 0; j++) {
+                if (demand[j] == 0) continue;
+                int min = Math.min(demand[j], supply[i]);
+                costMatrix.setBasic(costMatrix.index(i, j), min);
+                demand[j] -= min;
+                supply[i] -= min;
             }
         }
+        return new DistributionPlan(costMatrix, problem.newParticipants());
     }
-
-
 }
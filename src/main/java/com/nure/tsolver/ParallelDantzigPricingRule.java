@@ -0,0 +1,115 @@
+package com.nure.tsolver;
+
+import com.nure.tsolver.model.CompactPlan;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Full pricing that scans blocks of plan rows in parallel on fork/join pool. Every task finds its best cell and
+ * results are reduced by maximum. Ties are broken by lowest cell index, so entering cell is always the same as
+ * in {@code DantzigPricingRule} and parallel and serial solves build equal plans.
+ */
+public class ParallelDantzigPricingRule implements FullPricingRule {
+    private static final int MIN_CELLS_PER_TASK = 1 << 14;
+
+    private final ForkJoinPool pool;
+    private long[] rowMaxSums;
+
+    /**
+     * Constructs rule that prices plan on specified pool.
+     *
+     * @param pool fork/join pool for row block tasks.
+     */
+    public ParallelDantzigPricingRule(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public int findEnteringCell(CompactPlan plan, BasisTree basisTree) {
+        int rowsPerTask = Math.max(1, MIN_CELLS_PER_TASK / Math.max(1, plan.size() / plan.getHeight()));
+        if (rowMaxSums == null || rowMaxSums.length != plan.getHeight())
+            rowMaxSums = new long[plan.getHeight()];
+        return pool.invoke(new RowBlockTask(plan, basisTree, rowMaxSums, 0, plan.getHeight(), rowsPerTask));
+    }
+
+    @Override
+    public long getRowMaxPotentialSum(int row) {
+        return rowMaxSums[row];
+    }
+
+    /**
+     * Chooses cell with bigger potential sum, for equal sums cell with lower index, so result does not depend
+     * on task split.
+     */
+    private static int betterCell(CompactPlan plan, int first, int second) {
+        if (first == CompactPlan.NO_CELL)
+            return second;
+        if (second == CompactPlan.NO_CELL)
+            return first;
+        long firstSum = plan.getPotentialSum(first);
+        long secondSum = plan.getPotentialSum(second);
+        if (firstSum != secondSum)
+            return firstSum > secondSum ? first : second;
+        return Math.min(first, second);
+    }
+
+    @SuppressWarnings("serial")
+    private static class RowBlockTask extends RecursiveTask<Integer> {
+        private final CompactPlan plan;
+        private final BasisTree basisTree;
+        private final long[] rowMaxSums;
+        private final int fromRow;
+        private final int toRow;
+        private final int rowsPerTask;
+
+        RowBlockTask(CompactPlan plan, BasisTree basisTree, long[] rowMaxSums, int fromRow, int toRow,
+                     int rowsPerTask) {
+            this.plan = plan;
+            this.basisTree = basisTree;
+            this.rowMaxSums = rowMaxSums;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.rowsPerTask = rowsPerTask;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (toRow - fromRow <= rowsPerTask)
+                return scanRows();
+            int middle = (fromRow + toRow) >>> 1;
+            RowBlockTask left = new RowBlockTask(plan, basisTree, rowMaxSums, fromRow, middle, rowsPerTask);
+            RowBlockTask right = new RowBlockTask(plan, basisTree, rowMaxSums, middle, toRow, rowsPerTask);
+            right.fork();
+            int leftCell = left.compute();
+            int rightCell = right.join();
+            return betterCell(plan, leftCell, rightCell);
+        }
+
+        private int scanRows() {
+            long maxElementSum = 0;
+            int maxCell = CompactPlan.NO_CELL;
+            for (int i = fromRow; i < toRow; i++) {
+                long rowMaxSum = 0;
+                long rowPotential = basisTree.getRowPotential(i);
+                int rowStart = plan.rowStart(i);
+                int rowEnd = plan.rowEnd(i);
+                for (int index = rowStart; index < rowEnd; index++) {
+                    if (plan.isBasic(index))
+                        continue;
+                    long potentialSum = basisTree.getColumnPotential(plan.columnOf(index, rowStart)) + rowPotential
+                            - plan.getTariff(index);
+                    plan.setPotentialSum(index, potentialSum);
+                    if (potentialSum > rowMaxSum)
+                        rowMaxSum = potentialSum;
+                    if (potentialSum > maxElementSum) {
+                        maxElementSum = potentialSum;
+                        maxCell = index;
+                    }
+                }
+                rowMaxSums[i] = rowMaxSum;
+            }
+            return maxCell;
+        }
+    }
+}
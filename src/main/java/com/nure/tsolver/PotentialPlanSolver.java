@@ -1,19 +1,21 @@
 package com.nure.tsolver;
 
-import com.nure.tsolver.model.DistributionCell;
+import com.nure.tsolver.model.CompactPlan;
 import com.nure.tsolver.model.DistributionParticipants;
 import com.nure.tsolver.model.DistributionPlan;
-import com.nure.tsolver.model.PotentialArray;
+import com.nure.tsolver.model.SolveStatus;
 
 public class PotentialPlanSolver {
     private DistributionPlan distributionPlan;
-    private DistributionParticipants participants;
+    private CompactPlan compactPlan;
     private CycleMover cycleMover;
+    private PricingRule pricingRule;
+    private static final PricingRule ANTI_CYCLING_RULE = new BlandPricingRule();
+    private SolverListener listener;
+    private SolveLimits limits;
+    private final SolverWorkspace workspace;
 
-    private PotentialArray uArray;
-    private PotentialArray vArray;
-
-    private int potentialErrorCounter = 0;
+    private BasisTree basisTree;
 
     /**
      * Construct plan solver from initial distribution plan created by {@code MinElementPlanSolver}
@@ -21,121 +23,234 @@ public class PotentialPlanSolver {
      * @param firstDistributionPlan not empty distribution plan
      */
     public PotentialPlanSolver(DistributionPlan firstDistributionPlan) {
-        this.distributionPlan = firstDistributionPlan;
-        this.participants = firstDistributionPlan.getParticipants();
-        this.cycleMover = new CycleMover(distributionPlan, participants);
+        this(firstDistributionPlan, new DantzigPricingRule());
+    }
 
-        this.uArray = new PotentialArray(participants.consumersCount());
-        this.vArray = new PotentialArray(participants.suppliersCount());
+    /**
+     * Construct plan solver from initial distribution plan with specified pricing rule.
+     *
+     * @param firstDistributionPlan not empty distribution plan
+     * @param pricingRule           rule that chooses cell entering basis, must not be shared with other solves.
+     */
+    public PotentialPlanSolver(DistributionPlan firstDistributionPlan, PricingRule pricingRule) {
+        this(firstDistributionPlan, pricingRule, SolverListener.NO_OP);
+    }
+
+    /**
+     * Construct plan solver from initial distribution plan with pricing rule, listener and solve limits from solver
+     * options. Time limit is counted from construction of solver.
+     *
+     * @param firstDistributionPlan not empty distribution plan
+     * @param options               solver options.
+     */
+    public PotentialPlanSolver(DistributionPlan firstDistributionPlan, SolverOptions options) {
+        this(firstDistributionPlan, options.getPricingStrategy().newRule(options), options.getListener(),
+                new SolveLimits().start(options), new SolverWorkspace());
+    }
+
+    /**
+     * Construct plan solver from initial distribution plan with specified pricing rule and listener.
+     *
+     * @param firstDistributionPlan not empty distribution plan
+     * @param pricingRule           rule that chooses cell entering basis, must not be shared with other solves.
+     * @param listener              listener of solver progress.
+     */
+    public PotentialPlanSolver(DistributionPlan firstDistributionPlan, PricingRule pricingRule, SolverListener listener) {
+        this(firstDistributionPlan, pricingRule, listener, new SolveLimits(), new SolverWorkspace());
+    }
+
+    /**
+     * Construct plan solver with started solve limits, whose spanning tree, cycle arrays and metrics are taken
+     * from workspace.
+     */
+    PotentialPlanSolver(DistributionPlan firstDistributionPlan, PricingRule pricingRule, SolverListener listener,
+                        SolveLimits limits, SolverWorkspace workspace) {
+        this.workspace = workspace;
+        reset(firstDistributionPlan, pricingRule, listener, limits);
+    }
+
+    /**
+     * Prepares solver of workspace for next solve.
+     */
+    void reset(DistributionPlan firstDistributionPlan, PricingRule pricingRule, SolverListener listener,
+               SolveLimits limits) {
+        this.distributionPlan = firstDistributionPlan;
+        this.compactPlan = firstDistributionPlan.getCompactPlan();
+        this.pricingRule = pricingRule;
+        this.listener = listener;
+        this.limits = limits;
     }
 
     /**
      * Entry point of plan optimization. First of all algorithm checks is distribution plan
      * one dimensional, because one dimensional plan after {@code MinElementPlanSolver} will be always
-     * optimal. Then it calculates potentials sums and takes bigger one. It must perform cycle moves of
-     * products until the biggest sum be grater than zero. After that plan will be optimal.
+     * optimal. Before that degenerate basis is completed by empty basic cells up to {@code height + width - 1} cells.
+     * Pricing rule calculates potentials sums and chooses cell with positive one. It must perform
+     * cycle moves of products until there is cell with sum grater than zero. After that plan will be optimal.
+     * Progress is reported to listener, total cost is tracked by cost change of every cycle, and when pricing rule
+     * prices whole plan, metrics also have lower bound of optimal cost, so optimality gap is known on every
+     * iteration.
+     * <p>
+     * Cycles that move no products do not decrease cost, and pricing rule may repeat the same sequence of such
+     * pivots forever. When count of degenerate pivots in a row exceeds node count, entering cells are chosen by
+     * smallest index rule until products are moved again, so solve always terminates.
+     * <p>
+     * Iterations are counted from iteration count of initial plan, so solve resumed from checkpoint reports the
+     * same iteration numbers as uninterrupted solve.
+     * <p>
+     * Before every iteration solve limits are checked: cancellation, interrupt of solving thread, max iterations,
+     * deadline and target gap. If one of them stops solve, plan of the last finished iteration is returned with
+     * reason to stop and lower bound of optimal cost by potentials of its basis. This plan is feasible, but plan of
+     * sparse problem may still use artificial routes, see {@code CompactPlan.hasArtificialFlow()}.
      *
      * Warning: sometimes two equal initial plans after optimization will not be equal by cell distribution, but them
      * always equal by full plan cost.
-     * @return optimized distribution plan. Empty cell fullness is filled by empty placeholder.
+     * @return optimized distribution plan with count of iterations. Only cells with products and zero cells of
+     * degenerate basis are basic.
+     * @throws IllegalArgumentException if sparse plan has no feasible distribution by its allowed routes or plan
+     *                                  cost may overflow long.
      */
     public DistributionPlan findOptimalPlan() {
-
+        distributionPlan.setOptimal();
+        DistributionParticipants participants = distributionPlan.getParticipants();
+        long totalSupply = Math.max(participants.totalSupply(), participants.totalDemand());
+        CostBounds.checkTotalCost(compactPlan, totalSupply, 1);
+        basisTree = workspace.basisTree(compactPlan);
+        basisTree.connectComponents();
         if(isStartPlanOneColumnOrOneRow())
-            return distributionPlan;
-
-        makePotentials();
-        int iterations = 1;
-        DistributionCell maxPotentialCell = findMaxPotentialSum();
-        while (maxPotentialCell.getPotentialSum() > 0) {
+            return checkArtificialFlow();
 
-//            System.out.println("Max potential before cycle:" + maxPotentialCell.getPotentialSum() +
-//                    " on [" + maxPotentialCell.getX()+ "," + maxPotentialCell.getY()+"]");
+        cycleMover = workspace.cycleMover(compactPlan, basisTree);
+        IterationMetrics metrics = workspace.metrics(distributionPlan.countMoney(),
+                distributionPlan.getIterationsCount());
+        listener.onStart(distributionPlan, basisTree);
 
+        int maxDegeneratePivots = basisTree.nodesCount();
+        int degeneratePivots = 0;
+        int firstIteration = metrics.getIteration();
+        SolveStatus stopStatus = null;
+        long pricingStart = System.nanoTime();
+        int maxPotentialCell = pricingRule.findEnteringCell(compactPlan, basisTree);
+        updateLowerBound(metrics, pricingRule, maxPotentialCell);
+        while (maxPotentialCell != CompactPlan.NO_CELL) {
+            long pivotStart = System.nanoTime();
+            stopStatus = limits.check(metrics.getIteration() - firstIteration, pivotStart,
+                    metrics.getOptimalityGap());
+            if (stopStatus != null)
+                break;
+            long potentialSum = compactPlan.getPotentialSum(maxPotentialCell);
+            int leavingCell = cycleMover.cycle(maxPotentialCell);
+            int movedQuantity = cycleMover.getMovedQuantity();
+            long pivotEnd = System.nanoTime();
+            metrics.update(maxPotentialCell, leavingCell, movedQuantity, -movedQuantity * potentialSum,
+                    pivotStart - pricingStart, pivotEnd - pivotStart);
+            listener.onIteration(distributionPlan, basisTree, metrics);
 
-            cycleMover.cycle(maxPotentialCell);
-
-            makePotentials();
-            maxPotentialCell = findMaxPotentialSum();
+            degeneratePivots = movedQuantity == 0 ? degeneratePivots + 1 : 0;
+            pricingStart = System.nanoTime();
+            PricingRule rule = degeneratePivots > maxDegeneratePivots ? ANTI_CYCLING_RULE : pricingRule;
+            maxPotentialCell = rule.findEnteringCell(compactPlan, basisTree);
+            updateLowerBound(metrics, rule, maxPotentialCell);
+        }
+        distributionPlan.setIterationsCount(metrics.getIteration());
+        if (stopStatus != null) {
+            metrics.updateLowerBound(potentialsLowerBound(metrics.getObjective()));
+            distributionPlan.setStopped(stopStatus, metrics.getLowerBound());
+            listener.onFinish(distributionPlan, metrics);
+            return distributionPlan;
+        }
 
-//            System.out.println("Max potential after cycle:" + maxPotentialCell.getPotentialSum() +
-//                    " on [" + maxPotentialCell.getX()+ "," + maxPotentialCell.getY()+"]");
+        listener.onFinish(distributionPlan, metrics);
+        return checkArtificialFlow();
+    }
 
-            System.out.println("Iteration "+iterations++);
-            distributionPlan.printPlan(vArray, uArray);
-            uArray.clear();
-            vArray.clear();
+    /**
+     * Calculates lower bound of optimal cost by actual potentials with scan of plan, as solve that stops early may
+     * have no bound from pricing, see {@code rowsLowerBound}.
+     *
+     * @return lower bound or {@code Long.MIN_VALUE} if it does not fit long.
+     */
+    private long potentialsLowerBound(long objective) {
+        long decrease = 0;
+        for (int i = 0; i < compactPlan.getHeight() && decrease >= 0; i++) {
+            long maxElementSum = 0;
+            long rowPotential = basisTree.getRowPotential(i);
+            int rowStart = compactPlan.rowStart(i);
+            int rowEnd = compactPlan.rowEnd(i);
+            for (int index = rowStart; index < rowEnd; index++) {
+                if (compactPlan.isBasic(index))
+                    continue;
+                long potentialSum = basisTree.getColumnPotential(compactPlan.columnOf(index, rowStart))
+                        + rowPotential - compactPlan.getTariff(index);
+                maxElementSum = Math.max(maxElementSum, potentialSum);
+            }
+            decrease = addRowDecrease(decrease, i, maxElementSum);
         }
+        return lowerBound(objective, decrease);
+    }
 
-        distributionPlan.countMoney();
-        return distributionPlan;
+    /**
+     * Calculates lower bound of optimal cost by the biggest potential sums of rows that rule found while it priced
+     * whole plan. No unit of row supply can be delivered cheaper than its basis price minus the biggest potential
+     * sum of the row, so bound is objective minus sum of row supply multiplied by that sum.
+     *
+     * @return lower bound or {@code Long.MIN_VALUE} if it does not fit long.
+     */
+    private long rowsLowerBound(FullPricingRule rule, long objective) {
+        long decrease = 0;
+        for (int i = 0; i < compactPlan.getHeight() && decrease >= 0; i++)
+            decrease = addRowDecrease(decrease, i, rule.getRowMaxPotentialSum(i));
+        return lowerBound(objective, decrease);
     }
 
     /**
-     * Internal check for one-dimensional plan
-     * @return true if plan one-dimensional.
+     * Adds row supply multiplied by the biggest potential sum of row to decrease of cost.
+     *
+     * @return new decrease or -1 if it does not fit long.
      */
-    private boolean isStartPlanOneColumnOrOneRow() {
-        return distributionPlan.getHeight()==1 || distributionPlan.getWidth() == 1;
+    private long addRowDecrease(long decrease, int row, long maxElementSum) {
+        int supply = distributionPlan.getParticipants().getSupplierSupply(row);
+        if (maxElementSum == 0 || supply == 0)
+            return decrease;
+        if (maxElementSum > (Long.MAX_VALUE - decrease) / supply)
+            return -1;
+        return decrease + maxElementSum * supply;
+    }
+
+    private static long lowerBound(long objective, long decrease) {
+        return decrease >= 0 && objective >= Long.MIN_VALUE + decrease ? objective - decrease : Long.MIN_VALUE;
     }
 
     /**
-     * Method that calculates potentials for each row and column. It fill potential arrays until there
-     * is at least one empty cell or potential conflict occurred.
+     * Raises lower bound of optimal cost after pricing. Optimal plan is its own bound. Rule that prices whole plan
+     * gives the biggest potential sum of every row, so bound is known on every iteration. Bound that does not fit
+     * long is skipped.
      */
-    private void makePotentials() {
-        uArray.set(0, 0);
-        int iterations = 0;
-        while (uArray.findIndexOfNull() > -1 || vArray.findIndexOfNull() > -1) {
-            for (int i = 0; i < participants.suppliersCount(); i++) {
-                for (int j = 0; j < participants.consumersCount(); j++) {
-                    if (!distributionPlan.getCell(i,j).isFullnessNull()) {
-                        if (!uArray.isNull(j) && vArray.isNull(i)) {
-                            vArray.set(i, distributionPlan.getCell(i,j).getTariffCost() - uArray.get(j));
-                        } else if (uArray.isNull(j) && !vArray.isNull(i)) {
-                            uArray.set(j, distributionPlan.getCell(i,j).getTariffCost() - vArray.get(i));
-                        }
-                    }
-                }
-            }
-            iterations++;
-            if (iterations > 20_000) {
-                potentialErrorCounter++;
-                if (potentialErrorCounter > 5)
-                    System.out.println("Potentials conflicting errors " + potentialErrorCounter);
-                System.out.println("Potentials conflict detected, resolving...");
-                int uElementNullIndex = uArray.findIndexOfNull();
-                int vElementNullIndex = vArray.findIndexOfNull();
-                if (uElementNullIndex > -1) {
-                    uArray.set(uElementNullIndex, 0);
-                } else if (vElementNullIndex > -1) {
-                    vArray.set(vElementNullIndex, 0);
-                }
-                iterations = 0;
-            }
+    private void updateLowerBound(IterationMetrics metrics, PricingRule rule, int enteringCell) {
+        if (enteringCell == CompactPlan.NO_CELL) {
+            metrics.updateLowerBound(metrics.getObjective());
+            return;
         }
+        if (rule instanceof FullPricingRule)
+            metrics.updateLowerBound(rowsLowerBound((FullPricingRule) rule, metrics.getObjective()));
     }
 
     /**
-     * Finds cell with maximum potential sum.
-     * @return cell with max potential sum or null if all cells not empty.
+     * Products left on artificial routes of optimal plan mean that allowed routes of sparse plan can not
+     * deliver all supply.
+     * @return optimized plan if it uses only allowed routes.
      */
-    private DistributionCell findMaxPotentialSum() {
-        double maxElementSum = Integer.MIN_VALUE;
-
-        DistributionCell maxCell = null;
-        for (int i = 0; i < participants.suppliersCount(); i++) {
-            for (int j = 0; j < participants.consumersCount(); j++) {
-                if (distributionPlan.getCell(i,j).isFullnessNull()) {
-                    distributionPlan.getCell(i,j).setPotentialSum(
-                            uArray.get(j) + vArray.get(i) - distributionPlan.getCell(i,j).getTariffCost());
-                    if (distributionPlan.getCell(i,j).getPotentialSum() > maxElementSum) {
-                        maxElementSum = distributionPlan.getCell(i,j).getPotentialSum();
-                        maxCell = distributionPlan.getCell(i,j);
-                    }
-                }
-            }
-        }
-        return maxCell;
+    private DistributionPlan checkArtificialFlow() {
+        if (compactPlan.hasArtificialFlow())
+            throw new IllegalArgumentException("Supply can not be delivered to consumers by allowed routes");
+        return distributionPlan;
+    }
+
+    /**
+     * Internal check for one-dimensional plan
+     * @return true if plan one-dimensional.
+     */
+    private boolean isStartPlanOneColumnOrOneRow() {
+        return distributionPlan.getHeight()==1 || distributionPlan.getWidth() == 1;
     }
 }
@@ -0,0 +1,29 @@
+package com.nure.tsolver;
+
+import com.nure.tsolver.model.DistributionPlan;
+import com.nure.tsolver.model.TransportProblem;
+
+/**
+ * Transportation simplex engine: initial plan heuristic selected in options and potential method.
+ */
+public class PotentialTransportSolver implements TransportSolver {
+    private final SolverOptions options;
+
+    /**
+     * Constructs engine with specified options.
+     *
+     * @param options solver options with initial plan method and pricing strategy.
+     */
+    public PotentialTransportSolver(SolverOptions options) {
+        this.options = options;
+    }
+
+    @Override
+    public DistributionPlan solve(TransportProblem problem) {
+        SolveLimits limits = new SolveLimits().start(options);
+        InitialPlanStrategy initialPlanStrategy = options.getInitialPlanMethod().newStrategy(problem);
+        DistributionPlan firstDistributionPlan = initialPlanStrategy.findPlan();
+        return new PotentialPlanSolver(firstDistributionPlan, options.getPricingStrategy().newRule(options),
+                options.getListener(), limits, new SolverWorkspace()).findOptimalPlan();
+    }
+}
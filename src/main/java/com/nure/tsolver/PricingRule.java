@@ -0,0 +1,24 @@
+package com.nure.tsolver;
+
+import com.nure.tsolver.model.CompactPlan;
+
+/**
+ * Rule that chooses cell which enters basis on each iteration of potential method. Rule calculates potential sums
+ * {@code u[j] + v[i] - tariff} of empty cells it looks at and stores them in plan.
+ */
+public interface PricingRule {
+    /**
+     * Finds cell that enters basis.
+     *
+     * @param plan      compact distribution plan.
+     * @param basisTree basis tree of plan with actual potentials.
+     * @return index of empty cell with positive potential sum or {@code CompactPlan.NO_CELL} if plan is optimal.
+     */
+    int findEnteringCell(CompactPlan plan, BasisTree basisTree);
+
+    /**
+     * Forgets state of previous solve, so {@code SolverWorkspace} can reuse rule for next solve.
+     */
+    default void reset() {
+    }
+}
@@ -0,0 +1,42 @@
+package com.nure.tsolver;
+
+/**
+ * Pricing rules that can be selected for solve in {@code SolverOptions}. Each solve gets its own rule instance,
+ * because Dantzig, block and candidate list rules keep state between iterations.
+ */
+public enum PricingStrategy {
+    DANTZIG {
+        @Override
+        public PricingRule newRule(SolverOptions options) {
+            if (options.isParallelPricing())
+                return new ParallelDantzigPricingRule(options.getPricingPool());
+            return new DantzigPricingRule();
+        }
+    },
+    BLOCK {
+        @Override
+        public PricingRule newRule(SolverOptions options) {
+            return new BlockPricingRule(options.getBlockSize());
+        }
+    },
+    CANDIDATE_LIST {
+        @Override
+        public PricingRule newRule(SolverOptions options) {
+            return new CandidateListPricingRule(options.getCandidateListSize());
+        }
+    },
+    BLAND {
+        @Override
+        public PricingRule newRule(SolverOptions options) {
+            return new BlandPricingRule();
+        }
+    };
+
+    /**
+     * Creates new rule instance for one solve.
+     *
+     * @param options solver options with rule parameters.
+     * @return pricing rule.
+     */
+    public abstract PricingRule newRule(SolverOptions options);
+}
@@ -0,0 +1,35 @@
+package com.nure.tsolver;
+
+import com.nure.tsolver.model.DistributionPlan;
+import com.nure.tsolver.model.PotentialArray;
+
+/**
+ * Listener that prints initial plan, every iteration with potentials and final plan cost to standard output.
+ * Printing formats every cell, so it should be attached only for debugging of small plans.
+ */
+public class PrintingSolverListener implements SolverListener {
+
+    @Override
+    public void onStart(DistributionPlan plan, BasisTree basisTree) {
+        plan.printPlan();
+    }
+
+    @Override
+    public void onIteration(DistributionPlan plan, BasisTree basisTree, IterationMetrics metrics) {
+        PotentialArray uArray = new PotentialArray(plan.getWidth());
+        PotentialArray vArray = new PotentialArray(plan.getHeight());
+        for (int i = 0; i < plan.getHeight(); i++) {
+            vArray.set(i, basisTree.getRowPotential(i));
+        }
+        for (int j = 0; j < plan.getWidth(); j++) {
+            uArray.set(j, basisTree.getColumnPotential(j));
+        }
+        System.out.println("Iteration " + metrics.getIteration());
+        plan.printPlan(vArray, uArray);
+    }
+
+    @Override
+    public void onFinish(DistributionPlan plan, IterationMetrics metrics) {
+        plan.printMoney();
+    }
+}
@@ -1,43 +1,171 @@
 package com.nure.tsolver;
 
-import com.nure.tsolver.model.DistributionCell;
+import com.nure.tsolver.io.PlanSnapshotReader;
+import com.nure.tsolver.model.CompactPlan;
 import com.nure.tsolver.model.DistributionParticipants;
 import com.nure.tsolver.model.DistributionPlan;
-import com.nure.tsolver.model.MatrixPosition;
+import com.nure.tsolver.model.Route;
+import com.nure.tsolver.model.TransportProblem;
 
-public class ProductDistributor {
-    private final DistributionCell[][] distributionCells;
-    private final DistributionParticipants distributionParticipants;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 
+public class ProductDistributor {
+    private final TransportProblem problem;
+    private final SolverOptions options;
 
     /**
-     * Constructs distributor from double cost matrix and build cell matrix inside
+     * Constructs distributor from double cost matrix and build compact plan with flat tariff array inside
      * @param costArray double matrix, its height and width must be equal with participants consumer and supplier count.
      * @param distributionParticipants participants of distribution.
      */
     public ProductDistributor(int[][] costArray, DistributionParticipants distributionParticipants) {
-        this.distributionCells = new DistributionCell[distributionParticipants.suppliersCount()][distributionParticipants.consumersCount()];
-        for (int i = 0; i < distributionParticipants.suppliersCount(); i++) {
-            for (int j = 0; j < distributionParticipants.consumersCount(); j++) {
-                distributionCells[i][j] = new DistributionCell(new MatrixPosition(i,j),costArray[i][j]);
-            }
-        }
-        this.distributionParticipants = distributionParticipants;
+        this(costArray, distributionParticipants, SolverOptions.defaults());
     }
 
     /**
-     * Entry point of transportation problem solver. First of all minimal element algorithm builds initial plan of distribution.
-     * Then potential algorithm improves initial plan by cyclic moves.
-     * @return optimal {@code DistributionPlan}.
+     * Constructs distributor from double cost matrix with specified solver options. Tariffs and participants are
+     * copied, so later changes of arguments do not affect distributor and distributors can be solved concurrently.
+     * If total supply is not equal to total demand, problem is balanced by dummy consumer or supplier with
+     * zero-cost cells, see {@code DistributionParticipants.balanced()}.
+     * @param costArray double matrix, its height and width must be equal with participants consumer and supplier count.
+     * @param distributionParticipants participants of distribution.
+     * @param options solver options, for example pricing strategy.
+     */
+    public ProductDistributor(int[][] costArray, DistributionParticipants distributionParticipants, SolverOptions options) {
+        this(TransportProblem.fromCostArray(costArray, distributionParticipants), options);
+    }
+
+    /**
+     * Constructs distributor from ready plan with tariffs. Plan and participants are copied to new problem, tariff
+     * array is shared with plan until one of them changes a tariff.
+     *
+     * @param costMatrix plan with tariffs, its height and width must be equal with participants supplier and
+     *                   consumer count.
+     * @param distributionParticipants balanced participants of distribution.
+     * @param options solver options, for example pricing strategy.
+     */
+    public ProductDistributor(CompactPlan costMatrix, DistributionParticipants distributionParticipants,
+                              SolverOptions options) {
+        this(new TransportProblem(costMatrix, distributionParticipants), options);
+    }
+
+    /**
+     * Constructs distributor of shared problem with default solver options.
+     * @param problem transportation problem, it is not copied.
+     */
+    public ProductDistributor(TransportProblem problem) {
+        this(problem, SolverOptions.defaults());
+    }
+
+    /**
+     * Constructs distributor of shared problem. Problem is immutable, so any count of distributors with different
+     * options may solve it concurrently, every solve allocates only its own plan state.
+     * @param problem transportation problem, it is not copied.
+     * @param options solver options, for example pricing strategy.
+     */
+    public ProductDistributor(TransportProblem problem, SolverOptions options) {
+        this.problem = problem;
+        this.options = options;
+    }
+
+    /**
+     * Constructs distributor from matrix of fractional costs. Costs are rounded to fixed-point tariffs with specified
+     * count of fraction digits, solvers work with these integer tariffs, and cost of result plan in money is
+     * {@code DistributionPlan.countCost()}. Unbalanced problem is balanced as for integer cost matrix.
+     * @param costArray double matrix, its height and width must be equal with participants consumer and supplier count.
+     * @param fractionDigits count of decimal digits of costs kept after point, from 0 to 9.
+     * @param distributionParticipants participants of distribution.
+     * @param options solver options, for example pricing strategy.
+     */
+    public ProductDistributor(double[][] costArray, int fractionDigits, DistributionParticipants distributionParticipants,
+                              SolverOptions options) {
+        this(TransportProblem.fromCostArray(costArray, fractionDigits, distributionParticipants), options);
+    }
+
+    /**
+     * Constructs distributor of sparse problem, where products can be delivered only by allowed routes.
+     * @param routes allowed routes, every supplier and consumer pair can be set once.
+     * @param distributionParticipants participants of distribution.
+     */
+    public ProductDistributor(List<Route> routes, DistributionParticipants distributionParticipants) {
+        this(routes, distributionParticipants, SolverOptions.defaults());
+    }
+
+    /**
+     * Constructs distributor of sparse problem with specified solver options. Plan keeps only cells of allowed
+     * routes, so memory and pricing cost depend on route count. Only minimal element initial plan supports
+     * sparse plans. Unbalanced problem gets dummy participant with zero-cost routes to every real participant.
+     * @param routes allowed routes, every supplier and consumer pair can be set once.
+     * @param distributionParticipants participants of distribution.
+     * @param options solver options, for example pricing strategy.
+     */
+    public ProductDistributor(List<Route> routes, DistributionParticipants distributionParticipants, SolverOptions options) {
+        this(TransportProblem.fromRoutes(routes, distributionParticipants), options);
+    }
+
+    /**
+     * Entry point of transportation problem solver. Engine selected in options solves the problem. By default first of
+     * all initial plan strategy selected in options (minimal element algorithm by default) builds initial plan of
+     * distribution. Then potential algorithm improves initial plan by cyclic moves. Time, iteration and gap limits
+     * of options or cancellation may stop it earlier, then plan has status of stop and lower bound of optimal cost.
+     * @return optimal {@code DistributionPlan} with count of engine iterations, its surplus supply and unmet demand
+     * show what dummy participant took when problem was not balanced.
      */
     public DistributionPlan distribute()  {
-        //NorthWestPlan nortWestPlan = new NorthWestPlan(distributionCells, distributionParticipants);
-        MinElementPlanSolver minElementPlanSolver = new MinElementPlanSolver(distributionCells, distributionParticipants);
-        DistributionPlan firstDistributionPlan = minElementPlanSolver.findPlan();
-        //DistributionPlan firstDistributionPlan = nortWestPlan.findPlan();
-        PotentialPlanSolver potentialPlanSolver = new PotentialPlanSolver(firstDistributionPlan);
-        DistributionPlan optimalPlan = potentialPlanSolver.findOptimalPlan();
-        optimalPlan.clearEmptyFullness();
-        return optimalPlan;
+        return options.getEngine().newSolver(options).solve(problem);
+    }
+
+    /**
+     * Solves problem as {@code distribute()}, but with arrays and result plan of workspace, so repeated solves of
+     * same-shaped problems by one workspace allocate nothing.
+     *
+     * @param workspace workspace of current thread.
+     * @return optimal plan, it belongs to workspace and is overwritten by its next solve.
+     */
+    public DistributionPlan distribute(SolverWorkspace workspace) {
+        return workspace.solve(problem, options);
+    }
+
+    /**
+     * Re-optimizes plan returned by {@code distribute()} after its tariffs or participants were slightly changed.
+     * Solve starts from previous plan basis, so it needs much less iterations than new distribution.
+     * @param previousPlan solved plan with changed tariffs, supply or demand.
+     * @return optimal {@code DistributionPlan} for changed problem.
+     */
+    public DistributionPlan redistribute(DistributionPlan previousPlan) {
+        return new WarmStartSolver(options).reoptimize(previousPlan);
+    }
+
+    /**
+     * Restores plan from snapshot written by {@code PlanSnapshotWriter}, for example checkpoint of
+     * {@code CheckpointListener} or solved plan of other service. Snapshot must be written for plan of the same
+     * size, restored plan has tariffs and participants of this distributor.
+     * @param snapshot snapshot stream, it is not closed and is read only to the end of snapshot.
+     * @return plan with fullness and basis of snapshot.
+     * @throws IOException if stream can not be read or snapshot does not match this problem.
+     */
+    public DistributionPlan restore(InputStream snapshot) throws IOException {
+        return new PlanSnapshotReader().read(snapshot, problem);
+    }
+
+    /**
+     * Continues potential method from plan restored from checkpoint. Unlike {@code redistribute()}, plan is not
+     * repaired, so its basis must be complete basis of this problem, as bases of potential method checkpoints are.
+     * Iteration count of result includes iterations done before checkpoint.
+     * @param checkpoint plan restored by {@code restore()}.
+     * @return optimal {@code DistributionPlan}.
+     */
+    public DistributionPlan resume(DistributionPlan checkpoint) {
+        return new PotentialPlanSolver(checkpoint, options).findOptimalPlan();
+    }
+
+    /**
+     * Gets problem of distributor, it may be shared with other distributors.
+     * @return immutable problem.
+     */
+    public TransportProblem getProblem() {
+        return problem;
     }
 }
@@ -0,0 +1,151 @@
+package com.nure.tsolver;
+
+import com.nure.tsolver.model.CompactPlan;
+import com.nure.tsolver.model.DistributionParticipants;
+import com.nure.tsolver.model.DistributionPlan;
+import com.nure.tsolver.model.TransportProblem;
+
+/**
+ * Class that contain logic for building initial distribution plan using Russell's approximation method.
+ */
+public class RussellPlanSolver implements InitialPlanStrategy {
+    private static final int NO_LINE = -1;
+
+    private final TransportProblem problem;
+    private CompactPlan costMatrix;
+
+    private int[] supply;
+    private int[] demand;
+    private boolean[] rowDone;
+    private boolean[] columnDone;
+    private int[] rowMax;
+    private int[] columnMax;
+
+    /**
+     * Construct plan builder from compact plan with tariffs and balanced participants, both are copied to new
+     * problem.
+     *
+     * @param costMatrix   dense plan with filled costs, its height and width must be equal
+     *                     with participants consumer and supplier count.
+     * @param participants not empty participants instance.
+     */
+    public RussellPlanSolver(CompactPlan costMatrix, DistributionParticipants participants) {
+        this(new TransportProblem(costMatrix, participants));
+    }
+
+    /**
+     * Construct plan builder for problem, problem is only read, so it may be shared with other solves.
+     *
+     * @param problem balanced transportation problem with dense plan.
+     */
+    public RussellPlanSolver(TransportProblem problem) {
+        if (problem.isSparse())
+            throw new IllegalArgumentException("Sparse plan is supported only by minimal element algorithm");
+        this.problem = problem;
+    }
+
+    /**
+     * Find initial distribution plan using Russell's approximation method. For every available cell value
+     * {@code tariff - rowMax - columnMax} is calculated, where maximums are taken over available tariffs of cell
+     * row and column. Cell with the most negative value is filled first. Maximums of lines are recalculated only
+     * when line that held them is exhausted.
+     *
+     * @return built {@code DistributionPlan} where only filled cells are basic.
+     */
+    @Override
+    public DistributionPlan findPlan() {
+        costMatrix = problem.newPlan();
+        int height = costMatrix.getHeight();
+        int width = costMatrix.getWidth();
+        supply = new int[height];
+        demand = new int[width];
+        for (int i = 0; i < height; i++)
+            supply[i] = problem.getSupply(i);
+        for (int j = 0; j < width; j++)
+            demand[j] = problem.getDemand(j);
+        rowDone = new boolean[height];
+        columnDone = new boolean[width];
+        rowMax = new int[height];
+        columnMax = new int[width];
+        for (int i = 0; i < height; i++)
+            recalculateRow(i);
+        for (int j = 0; j < width; j++)
+            recalculateColumn(j);
+
+        int activeRows = height;
+        int activeColumns = width;
+        while (activeRows > 0 && activeColumns > 0) {
+            int cell = findMinDeltaCell();
+            int row = costMatrix.rowOf(cell);
+            int column = costMatrix.columnOf(cell);
+            int amount = Math.min(supply[row], demand[column]);
+            costMatrix.setBasic(cell, amount);
+            supply[row] -= amount;
+            demand[column] -= amount;
+            if (supply[row] == 0) {
+                rowDone[row] = true;
+                activeRows--;
+                for (int j = 0; j < width; j++) {
+                    if (!columnDone[j] && columnMax[j] == row)
+                        recalculateColumn(j);
+                }
+            }
+            if (demand[column] == 0) {
+                columnDone[column] = true;
+                activeColumns--;
+                for (int i = 0; i < height; i++) {
+                    if (!rowDone[i] && rowMax[i] == column)
+                        recalculateRow(i);
+                }
+            }
+        }
+
+        costMatrix.clearZeroFlowBasis();
+        return new DistributionPlan(costMatrix, problem.newParticipants());
+    }
+
+    /**
+     * Finds available cell with the most negative {@code tariff - rowMax - columnMax} value.
+     */
+    private int findMinDeltaCell() {
+        int minDelta = Integer.MAX_VALUE;
+        int minCell = CompactPlan.NO_CELL;
+        for (int i = 0; i < rowDone.length; i++) {
+            if (rowDone[i])
+                continue;
+            int rowMaxTariff = costMatrix.getTariff(costMatrix.index(i, rowMax[i]));
+            for (int j = 0; j < columnDone.length; j++) {
+                if (columnDone[j])
+                    continue;
+                int cell = costMatrix.index(i, j);
+                int delta = costMatrix.getTariff(cell) - rowMaxTariff
+                        - costMatrix.getTariff(costMatrix.index(columnMax[j], j));
+                if (delta < minDelta) {
+                    minDelta = delta;
+                    minCell = cell;
+                }
+            }
+        }
+        return minCell;
+    }
+
+    private void recalculateRow(int row) {
+        int max = NO_LINE;
+        for (int j = 0; j < columnDone.length; j++) {
+            if (!columnDone[j] && (max == NO_LINE
+                    || costMatrix.getTariff(costMatrix.index(row, j)) > costMatrix.getTariff(costMatrix.index(row, max))))
+                max = j;
+        }
+        rowMax[row] = max;
+    }
+
+    private void recalculateColumn(int column) {
+        int max = NO_LINE;
+        for (int i = 0; i < rowDone.length; i++) {
+            if (!rowDone[i] && (max == NO_LINE
+                    || costMatrix.getTariff(costMatrix.index(i, column)) > costMatrix.getTariff(costMatrix.index(max, column))))
+                max = i;
+        }
+        columnMax[column] = max;
+    }
+}
@@ -0,0 +1,69 @@
+package com.nure.tsolver;
+
+import com.nure.tsolver.model.SolveStatus;
+
+import java.time.Duration;
+
+/**
+ * Limits of one solve taken from options: deadline, max count of iterations, target optimality gap and
+ * cancellation. Interrupt of solving thread is always checked, other limits are off until {@code start}.
+ * Deadline is counted from {@code start}, so time of initial plan is included when limits are started before it.
+ * Instance is mutable, so {@code SolverWorkspace} starts the same limits for every solve.
+ */
+final class SolveLimits {
+    private boolean hasDeadline;
+    private long deadline;
+    private int maxIterations = Integer.MAX_VALUE;
+    private long targetGap;
+    private CancellationToken cancellationToken;
+
+    /**
+     * Takes limits of options, deadline is counted from now.
+     *
+     * @param options solver options.
+     * @return this limits.
+     */
+    SolveLimits start(SolverOptions options) {
+        return start(options.getTimeLimit(), options.getMaxIterations(), options.getTargetGap(),
+                options.getCancellationToken());
+    }
+
+    /**
+     * Takes specified limits, deadline is counted from now.
+     *
+     * @param timeLimit         time limit or null if there is no limit.
+     * @param maxIterations     max count of iterations.
+     * @param targetGap         target optimality gap, zero means no target.
+     * @param cancellationToken token of solve, may be null.
+     * @return this limits.
+     */
+    SolveLimits start(Duration timeLimit, int maxIterations, long targetGap, CancellationToken cancellationToken) {
+        hasDeadline = timeLimit != null;
+        deadline = hasDeadline ? System.nanoTime() + timeLimit.toNanos() : 0;
+        this.maxIterations = maxIterations;
+        this.targetGap = targetGap;
+        this.cancellationToken = cancellationToken;
+        return this;
+    }
+
+    /**
+     * Checks whether solve must stop before next iteration.
+     *
+     * @param iterations count of iterations made by this solve.
+     * @param now        current {@code System.nanoTime()}.
+     * @param gap        current optimality gap, {@code Long.MAX_VALUE} if it is not known.
+     * @return reason to stop or null if solve may continue.
+     */
+    SolveStatus check(int iterations, long now, long gap) {
+        if (Thread.currentThread().isInterrupted()
+                || cancellationToken != null && cancellationToken.isCancelled())
+            return SolveStatus.CANCELLED;
+        if (iterations >= maxIterations)
+            return SolveStatus.ITERATION_LIMIT;
+        if (hasDeadline && now - deadline >= 0)
+            return SolveStatus.TIME_LIMIT;
+        if (targetGap > 0 && gap <= targetGap)
+            return SolveStatus.TARGET_GAP;
+        return null;
+    }
+}
@@ -0,0 +1,54 @@
+package com.nure.tsolver;
+
+/**
+ * Engines that can be selected for solve in {@code SolverOptions}. All engines find plans with equal optimal
+ * cost, but distribution of products may differ when problem has several optimal plans.
+ */
+public enum SolverEngine {
+    /**
+     * Initial plan heuristic and potential method, see {@code PotentialTransportSolver}.
+     */
+    POTENTIAL {
+        @Override
+        public TransportSolver newSolver(SolverOptions options) {
+            return new PotentialTransportSolver(options);
+        }
+    },
+    /**
+     * Network simplex with strongly feasible spanning tree, see {@code NetworkSimplexSolver}.
+     */
+    NETWORK_SIMPLEX {
+        @Override
+        public TransportSolver newSolver(SolverOptions options) {
+            return new NetworkSimplexSolver(options.getListener());
+        }
+    },
+    /**
+     * Cost scaling push-relabel, see {@code CostScalingSolver}. Uses parallel pricing options for its parallel
+     * phases.
+     */
+    COST_SCALING {
+        @Override
+        public TransportSolver newSolver(SolverOptions options) {
+            return new CostScalingSolver(options);
+        }
+    },
+    /**
+     * Auction with epsilon scaling, see {@code AuctionSolver}. Suppliers bid in parallel rounds when parallel
+     * pricing is enabled.
+     */
+    AUCTION {
+        @Override
+        public TransportSolver newSolver(SolverOptions options) {
+            return new AuctionSolver(options);
+        }
+    };
+
+    /**
+     * Creates new engine instance for one solve.
+     *
+     * @param options solver options.
+     * @return transportation problem engine.
+     */
+    public abstract TransportSolver newSolver(SolverOptions options);
+}
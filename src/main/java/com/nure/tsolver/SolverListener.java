@@ -0,0 +1,44 @@
+package com.nure.tsolver;
+
+import com.nure.tsolver.model.DistributionPlan;
+
+/**
+ * Listener of potential method progress. All methods do nothing by default, so solves without attached
+ * listener do no formatting and no output.
+ */
+public interface SolverListener {
+    /**
+     * Listener that ignores all events.
+     */
+    SolverListener NO_OP = new SolverListener() {
+    };
+
+    /**
+     * Called once before first iteration.
+     *
+     * @param plan      initial distribution plan.
+     * @param basisTree basis tree of initial plan with potentials.
+     */
+    default void onStart(DistributionPlan plan, BasisTree basisTree) {
+    }
+
+    /**
+     * Called after every pivot.
+     *
+     * @param plan      current distribution plan.
+     * @param basisTree basis tree with actual potentials.
+     * @param metrics   metrics of finished iteration, instance is reused between iterations.
+     */
+    default void onIteration(DistributionPlan plan, BasisTree basisTree, IterationMetrics metrics) {
+    }
+
+    /**
+     * Called once when solve finishes: when no cell with positive potential sum is left or when solve limit stops
+     * it, see {@code DistributionPlan.getStatus()}.
+     *
+     * @param plan    result plan, optimal only with {@code SolveStatus.OPTIMAL}.
+     * @param metrics metrics of last iteration.
+     */
+    default void onFinish(DistributionPlan plan, IterationMetrics metrics) {
+    }
+}
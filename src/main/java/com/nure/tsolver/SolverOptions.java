@@ -0,0 +1,81 @@
+package com.nure.tsolver;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Options of transportation problem solve. Default options use minimal element initial plan and full Dantzig pricing.
+ */
+@Getter
+@Builder
+public class SolverOptions {
+    /**
+     * Engine that solves problem, initial plan method, pricing options and solve limits are used only by
+     * {@code SolverEngine.POTENTIAL}.
+     */
+    @Builder.Default
+    private final SolverEngine engine = SolverEngine.POTENTIAL;
+    @Builder.Default
+    private final InitialPlanMethod initialPlanMethod = InitialPlanMethod.MIN_ELEMENT;
+    @Builder.Default
+    private final PricingStrategy pricingStrategy = PricingStrategy.DANTZIG;
+    /**
+     * Count of rows priced in one block by {@code PricingStrategy.BLOCK}.
+     */
+    @Builder.Default
+    private final int blockSize = 32;
+    /**
+     * Count of candidate cells kept by {@code PricingStrategy.CANDIDATE_LIST}.
+     */
+    @Builder.Default
+    private final int candidateListSize = 64;
+    /**
+     * Prices all empty cells by row blocks in parallel, used by {@code PricingStrategy.DANTZIG}.
+     * Parallel and serial solves choose the same entering cells and build equal plans. Also enables parallel
+     * phases of {@code SolverEngine.COST_SCALING} and parallel bidding of {@code SolverEngine.AUCTION}.
+     */
+    private final boolean parallelPricing;
+    /**
+     * Pool for parallel pricing tasks.
+     */
+    @Builder.Default
+    private final ForkJoinPool pricingPool = ForkJoinPool.commonPool();
+    /**
+     * Listener of solver progress, for example {@code PrintingSolverListener}. Nothing is reported by default.
+     */
+    @Builder.Default
+    private final SolverListener listener = SolverListener.NO_OP;
+    /**
+     * Time limit of solve including initial plan, no limit by default. When it passes, potential method returns
+     * plan of the last finished iteration with {@code SolveStatus.TIME_LIMIT}.
+     */
+    private final Duration timeLimit;
+    /**
+     * Max count of potential method iterations, plan after them is returned with
+     * {@code SolveStatus.ITERATION_LIMIT}.
+     */
+    @Builder.Default
+    private final int maxIterations = Integer.MAX_VALUE;
+    /**
+     * Optimality gap in tariff units that is good enough. When rule that prices whole plan proves gap not bigger
+     * than target, plan is returned with {@code SolveStatus.TARGET_GAP}. Zero means optimal plan.
+     */
+    private final long targetGap;
+    /**
+     * Token that stops solve from other thread, as interrupt of solving thread does. Plan is returned with
+     * {@code SolveStatus.CANCELLED}.
+     */
+    private final CancellationToken cancellationToken;
+
+    /**
+     * Gets options with all default values.
+     *
+     * @return default options.
+     */
+    public static SolverOptions defaults() {
+        return SolverOptions.builder().build();
+    }
+}
@@ -0,0 +1,160 @@
+package com.nure.tsolver;
+
+import com.nure.tsolver.model.CompactPlan;
+import com.nure.tsolver.model.DistributionParticipants;
+import com.nure.tsolver.model.DistributionPlan;
+import com.nure.tsolver.model.TransportProblem;
+
+/**
+ * Reusable state of potential method solves: plan arrays, remainders and sorted cells of minimal element plan,
+ * spanning tree, cycle arrays, metrics, pricing rule and result plan. State of previous solve is reset for next
+ * problem of the same height, width and routes, so repeated solves of same-shaped problems allocate nothing after
+ * the first one. Problem of other shape replaces cached state by new one.
+ * <p>
+ * Result plan of {@code solve} belongs to workspace and is overwritten by next solve, so plan that must be kept
+ * should be read or copied before. Workspace is not thread-safe, every thread needs its own workspace.
+ */
+public class SolverWorkspace {
+    private CompactPlan plan;
+    private DistributionParticipants participants;
+    private DistributionPlan distributionPlan;
+    private int[] supply;
+    private int[] demand;
+    private long[] cells;
+    private LongRadixSort cellSort;
+    private BasisTree basisTree;
+    private CycleMover cycleMover;
+    private IterationMetrics metrics;
+    private SolverOptions ruleOptions;
+    private PricingRule pricingRule;
+    private MinElementPlanSolver initialPlanSolver;
+    private PotentialPlanSolver solver;
+    private final SolveLimits limits = new SolveLimits();
+
+    /**
+     * Solves problem with state of this workspace. Workspace is used by potential engine with minimal element
+     * initial plan, other engines and initial plan methods are solved by new engine instance as usual.
+     *
+     * @param problem balanced transportation problem.
+     * @param options solver options.
+     * @return optimal plan, it is overwritten by next solve of this workspace.
+     */
+    public DistributionPlan solve(TransportProblem problem, SolverOptions options) {
+        if (options.getEngine() != SolverEngine.POTENTIAL
+                || options.getInitialPlanMethod() != InitialPlanMethod.MIN_ELEMENT)
+            return options.getEngine().newSolver(options).solve(problem);
+        limits.start(options);
+        if (initialPlanSolver == null)
+            initialPlanSolver = new MinElementPlanSolver(problem, this);
+        else
+            initialPlanSolver.reset(problem);
+        DistributionPlan initialPlan = initialPlanSolver.findPlan();
+        if (solver == null)
+            solver = new PotentialPlanSolver(initialPlan, pricingRule(options), options.getListener(), limits, this);
+        else
+            solver.reset(initialPlan, pricingRule(options), options.getListener(), limits);
+        return solver.findOptimalPlan();
+    }
+
+    CompactPlan plan(TransportProblem problem) {
+        plan = problem.newPlan(plan);
+        return plan;
+    }
+
+    int[] supply(int length) {
+        if (supply == null || supply.length != length)
+            supply = new int[length];
+        return supply;
+    }
+
+    int[] demand(int length) {
+        if (demand == null || demand.length != length)
+            demand = new int[length];
+        return demand;
+    }
+
+    /**
+     * Gets array for sorted cells, it may be longer than count of cells.
+     */
+    long[] cells(int count) {
+        if (cells == null || cells.length < count)
+            cells = new long[count];
+        return cells;
+    }
+
+    LongRadixSort cellSort() {
+        if (cellSort == null)
+            cellSort = new LongRadixSort();
+        return cellSort;
+    }
+
+    /**
+     * Gets result plan view of plan for problem. Participants of previous result get supply and demand of problem
+     * when they have the same suppliers, consumers and dummy participant.
+     */
+    DistributionPlan distributionPlan(CompactPlan compactPlan, TransportProblem problem) {
+        if (!resetParticipants(problem)) {
+            participants = problem.newParticipants();
+            distributionPlan = null;
+        }
+        if (distributionPlan == null || distributionPlan.getCompactPlan() != compactPlan)
+            distributionPlan = new DistributionPlan(compactPlan, participants);
+        distributionPlan.setIterationsCount(0);
+        distributionPlan.setOptimal();
+        return distributionPlan;
+    }
+
+    private boolean resetParticipants(TransportProblem problem) {
+        if (participants == null || participants.suppliersCount() != problem.getHeight()
+                || participants.consumersCount() != problem.getWidth()
+                || participants.hasDummyConsumer() != problem.hasDummyConsumer()
+                || participants.hasDummySupplier() != problem.hasDummySupplier())
+            return false;
+        for (int i = 0; i < problem.getHeight(); i++)
+            participants.setSupplierSupply(i, problem.getSupply(i));
+        for (int j = 0; j < problem.getWidth(); j++)
+            participants.setConsumerDemand(j, problem.getDemand(j));
+        return true;
+    }
+
+    BasisTree basisTree(CompactPlan compactPlan) {
+        if (basisTree == null || !basisTree.reset(compactPlan))
+            basisTree = new BasisTree(compactPlan);
+        return basisTree;
+    }
+
+    CycleMover cycleMover(CompactPlan compactPlan, BasisTree tree) {
+        if (cycleMover == null || !cycleMover.reset(compactPlan, tree))
+            cycleMover = new CycleMover(compactPlan, tree);
+        return cycleMover;
+    }
+
+    IterationMetrics metrics(long objective, int iteration) {
+        if (metrics == null)
+            metrics = new IterationMetrics(objective, iteration);
+        else
+            metrics.reset(objective, iteration);
+        return metrics;
+    }
+
+    /**
+     * Gets pricing rule of options, rule is reused while workspace solves with the same pricing options.
+     */
+    private PricingRule pricingRule(SolverOptions options) {
+        if (ruleOptions == null || !hasSamePricing(options, ruleOptions)) {
+            pricingRule = options.getPricingStrategy().newRule(options);
+            ruleOptions = options;
+        } else {
+            pricingRule.reset();
+        }
+        return pricingRule;
+    }
+
+    private static boolean hasSamePricing(SolverOptions first, SolverOptions second) {
+        return first.getPricingStrategy() == second.getPricingStrategy()
+                && first.getBlockSize() == second.getBlockSize()
+                && first.getCandidateListSize() == second.getCandidateListSize()
+                && first.isParallelPricing() == second.isParallelPricing()
+                && first.getPricingPool() == second.getPricingPool();
+    }
+}
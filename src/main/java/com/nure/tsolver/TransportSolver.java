@@ -0,0 +1,34 @@
+package com.nure.tsolver;
+
+import com.nure.tsolver.model.CompactPlan;
+import com.nure.tsolver.model.DistributionParticipants;
+import com.nure.tsolver.model.DistributionPlan;
+import com.nure.tsolver.model.TransportProblem;
+
+/**
+ * Engine that solves whole transportation problem, from cost matrix to optimal plan. Engines are selected for
+ * {@code ProductDistributor} by {@code SolverEngine} of solver options.
+ */
+public interface TransportSolver {
+
+    /**
+     * Finds optimal distribution plan. Problem is not changed, so one problem may be solved by several engines
+     * concurrently.
+     *
+     * @param problem balanced transportation problem.
+     * @return optimal {@code DistributionPlan} with count of engine iterations.
+     */
+    DistributionPlan solve(TransportProblem problem);
+
+    /**
+     * Finds optimal distribution plan. Cost matrix and participants are copied to new problem and are not changed.
+     *
+     * @param costMatrix   plan with filled costs, its height and width must be equal
+     *                     with participants consumer and supplier count.
+     * @param participants participants of distribution.
+     * @return optimal {@code DistributionPlan} with count of engine iterations.
+     */
+    default DistributionPlan solve(CompactPlan costMatrix, DistributionParticipants participants) {
+        return solve(new TransportProblem(costMatrix, participants));
+    }
+}
@@ -0,0 +1,184 @@
+package com.nure.tsolver;
+
+import com.nure.tsolver.model.CompactPlan;
+import com.nure.tsolver.model.DistributionParticipants;
+import com.nure.tsolver.model.DistributionPlan;
+import com.nure.tsolver.model.TransportProblem;
+
+/**
+ * Class that contain logic for building initial distribution plan using Vogel's approximation method.
+ */
+public class VogelPlanSolver implements InitialPlanStrategy {
+    private static final int NO_LINE = -1;
+
+    private final TransportProblem problem;
+    private CompactPlan costMatrix;
+
+    private int[] supply;
+    private int[] demand;
+    private boolean[] rowDone;
+    private boolean[] columnDone;
+    private int[] rowMin;
+    private int[] rowSecond;
+    private int[] columnMin;
+    private int[] columnSecond;
+
+    /**
+     * Construct plan builder from compact plan with tariffs and balanced participants, both are copied to new
+     * problem.
+     *
+     * @param costMatrix   dense plan with filled costs, its height and width must be equal
+     *                     with participants consumer and supplier count.
+     * @param participants not empty participants instance.
+     */
+    public VogelPlanSolver(CompactPlan costMatrix, DistributionParticipants participants) {
+        this(new TransportProblem(costMatrix, participants));
+    }
+
+    /**
+     * Construct plan builder for problem, problem is only read, so it may be shared with other solves.
+     *
+     * @param problem balanced transportation problem with dense plan.
+     */
+    public VogelPlanSolver(TransportProblem problem) {
+        if (problem.isSparse())
+            throw new IllegalArgumentException("Sparse plan is supported only by minimal element algorithm");
+        this.problem = problem;
+    }
+
+    /**
+     * Find initial distribution plan using Vogel's approximation method. Penalty of row or column is difference
+     * between its two cheapest available tariffs. Line with the biggest penalty is filled first in its cheapest
+     * cell. Two cheapest columns of every row and two cheapest rows of every column are kept, so after line is
+     * exhausted penalties are recalculated only for lines whose cheapest cells were in it.
+     *
+     * @return built {@code DistributionPlan} where only filled cells are basic.
+     */
+    @Override
+    public DistributionPlan findPlan() {
+        costMatrix = problem.newPlan();
+        int height = costMatrix.getHeight();
+        int width = costMatrix.getWidth();
+        supply = new int[height];
+        demand = new int[width];
+        for (int i = 0; i < height; i++)
+            supply[i] = problem.getSupply(i);
+        for (int j = 0; j < width; j++)
+            demand[j] = problem.getDemand(j);
+        rowDone = new boolean[height];
+        columnDone = new boolean[width];
+        rowMin = new int[height];
+        rowSecond = new int[height];
+        columnMin = new int[width];
+        columnSecond = new int[width];
+        for (int i = 0; i < height; i++)
+            recalculateRow(i);
+        for (int j = 0; j < width; j++)
+            recalculateColumn(j);
+
+        int activeRows = height;
+        int activeColumns = width;
+        while (activeRows > 0 && activeColumns > 0) {
+            int cell = findMaxPenaltyCell();
+            int row = costMatrix.rowOf(cell);
+            int column = costMatrix.columnOf(cell);
+            int amount = Math.min(supply[row], demand[column]);
+            costMatrix.setBasic(cell, amount);
+            supply[row] -= amount;
+            demand[column] -= amount;
+            if (supply[row] == 0) {
+                rowDone[row] = true;
+                activeRows--;
+                for (int j = 0; j < width; j++) {
+                    if (!columnDone[j] && (columnMin[j] == row || columnSecond[j] == row))
+                        recalculateColumn(j);
+                }
+            }
+            if (demand[column] == 0) {
+                columnDone[column] = true;
+                activeColumns--;
+                for (int i = 0; i < height; i++) {
+                    if (!rowDone[i] && (rowMin[i] == column || rowSecond[i] == column))
+                        recalculateRow(i);
+                }
+            }
+        }
+
+        costMatrix.clearZeroFlowBasis();
+        return new DistributionPlan(costMatrix, problem.newParticipants());
+    }
+
+    /**
+     * Finds cheapest cell of line with the biggest penalty, for equal penalties cheaper cell is taken.
+     */
+    private int findMaxPenaltyCell() {
+        int maxPenalty = 0;
+        int maxCell = CompactPlan.NO_CELL;
+        for (int i = 0; i < rowDone.length; i++) {
+            if (rowDone[i] || rowMin[i] == NO_LINE)
+                continue;
+            int cell = costMatrix.index(i, rowMin[i]);
+            int penalty = penalty(cell, rowSecond[i] == NO_LINE ? CompactPlan.NO_CELL : costMatrix.index(i, rowSecond[i]));
+            if (maxCell == CompactPlan.NO_CELL || penalty > maxPenalty || penalty == maxPenalty && costMatrix.getTariff(cell) < costMatrix.getTariff(maxCell)) {
+                maxPenalty = penalty;
+                maxCell = cell;
+            }
+        }
+        for (int j = 0; j < columnDone.length; j++) {
+            if (columnDone[j] || columnMin[j] == NO_LINE)
+                continue;
+            int cell = costMatrix.index(columnMin[j], j);
+            int penalty = penalty(cell, columnSecond[j] == NO_LINE ? CompactPlan.NO_CELL : costMatrix.index(columnSecond[j], j));
+            if (maxCell == CompactPlan.NO_CELL || penalty > maxPenalty || penalty == maxPenalty && costMatrix.getTariff(cell) < costMatrix.getTariff(maxCell)) {
+                maxPenalty = penalty;
+                maxCell = cell;
+            }
+        }
+        return maxCell;
+    }
+
+    /**
+     * Penalty of line with single available cell is tariff of this cell.
+     */
+    private int penalty(int minCell, int secondCell) {
+        if (secondCell == CompactPlan.NO_CELL)
+            return costMatrix.getTariff(minCell);
+        return costMatrix.getTariff(secondCell) - costMatrix.getTariff(minCell);
+    }
+
+    private void recalculateRow(int row) {
+        int min = NO_LINE;
+        int second = NO_LINE;
+        for (int j = 0; j < columnDone.length; j++) {
+            if (columnDone[j])
+                continue;
+            int tariff = costMatrix.getTariff(costMatrix.index(row, j));
+            if (min == NO_LINE || tariff < costMatrix.getTariff(costMatrix.index(row, min))) {
+                second = min;
+                min = j;
+            } else if (second == NO_LINE || tariff < costMatrix.getTariff(costMatrix.index(row, second))) {
+                second = j;
+            }
+        }
+        rowMin[row] = min;
+        rowSecond[row] = second;
+    }
+
+    private void recalculateColumn(int column) {
+        int min = NO_LINE;
+        int second = NO_LINE;
+        for (int i = 0; i < rowDone.length; i++) {
+            if (rowDone[i])
+                continue;
+            int tariff = costMatrix.getTariff(costMatrix.index(i, column));
+            if (min == NO_LINE || tariff < costMatrix.getTariff(costMatrix.index(min, column))) {
+                second = min;
+                min = i;
+            } else if (second == NO_LINE || tariff < costMatrix.getTariff(costMatrix.index(second, column))) {
+                second = i;
+            }
+        }
+        columnMin[column] = min;
+        columnSecond[column] = second;
+    }
+}
@@ -0,0 +1,197 @@
+package com.nure.tsolver;
+
+import com.nure.tsolver.model.CompactPlan;
+import com.nure.tsolver.model.DistributionParticipants;
+import com.nure.tsolver.model.DistributionPlan;
+
+import java.util.Arrays;
+
+/**
+ * Re-optimizes previously solved plan after its tariffs (via {@code DistributionCell.setTariffCost}) or supply and
+ * demand of its participants were changed. Solve starts from previous flows and basis instead of new initial plan,
+ * so small changes need only a few pivots.
+ */
+public class WarmStartSolver {
+    private static final long INDEX_MASK = 0xFFFFFFFFL;
+
+    private final SolverOptions options;
+
+    private CompactPlan plan;
+    private int[] supply;
+    private int[] demand;
+    private int[] rowSums;
+    private int[] columnSums;
+
+    /**
+     * Constructs solver with default options.
+     */
+    public WarmStartSolver() {
+        this(SolverOptions.defaults());
+    }
+
+    /**
+     * Constructs solver with specified options, initial plan method of options is not used.
+     *
+     * @param options solver options, for example pricing strategy.
+     */
+    public WarmStartSolver(SolverOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * Repairs previous plan, so it satisfies current supply and demand, and optimizes it by potential method.
+     * Rows and columns that got less products than before give away products of their cells, after that remaining
+     * supply is distributed by minimal element algorithm over rows and columns that still need products, supply that
+     * allowed routes of sparse plan can not take is placed on artificial routes. Cells
+     * that got products and are not basic are added to previous basis by cycle moves, then potential method
+     * continues from this basis. Previous plan is not changed.
+     *
+     * @param previousPlan solved plan with changed tariffs or participants.
+     * @return optimal {@code DistributionPlan} with count of potential method iterations.
+     */
+    public DistributionPlan reoptimize(DistributionPlan previousPlan) {
+        DistributionParticipants participants = previousPlan.getParticipants().clone();
+        plan = previousPlan.getCompactPlan().copy();
+        readRequirements(participants);
+
+        for (int i = 0; i < supply.length; i++) {
+            if (rowSums[i] > supply[i])
+                reduceRow(i);
+        }
+        for (int j = 0; j < demand.length; j++) {
+            if (columnSums[j] > demand[j])
+                reduceColumn(j);
+        }
+        int[] filledCells = fillRemainders();
+
+        BasisTree basisTree = new BasisTree(plan);
+        CycleMover cycleMover = new CycleMover(plan, basisTree);
+        for (int cell : filledCells) {
+            cycleMover.addToBasis(cell);
+        }
+        return new PotentialPlanSolver(new DistributionPlan(plan, participants), options).findOptimalPlan();
+    }
+
+    private void readRequirements(DistributionParticipants participants) {
+        supply = new int[plan.getHeight()];
+        demand = new int[plan.getWidth()];
+        long supplySum = 0;
+        long demandSum = 0;
+        for (int i = 0; i < supply.length; i++) {
+            supply[i] = participants.getSupplierSupply(i);
+            supplySum += supply[i];
+        }
+        for (int j = 0; j < demand.length; j++) {
+            demand[j] = participants.getConsumerDemand(j);
+            demandSum += demand[j];
+        }
+        if (supplySum != demandSum)
+            throw new IllegalArgumentException("Total supply must be equal to total demand.");
+
+        rowSums = new int[supply.length];
+        columnSums = new int[demand.length];
+        for (int index = plan.nextBasic(0); index >= 0; index = plan.nextBasic(index + 1)) {
+            rowSums[plan.rowOf(index)] += plan.getFlow(index);
+            columnSums[plan.columnOf(index)] += plan.getFlow(index);
+        }
+    }
+
+    /**
+     * Takes products away from basic cells of row until row sum is equal to its supply. Cells stay basic even if
+     * they become empty.
+     */
+    private void reduceRow(int row) {
+        int rowEnd = plan.rowEnd(row);
+        for (int index = plan.rowStart(row); index < rowEnd && rowSums[row] > supply[row]; index++) {
+            takeAway(index, rowSums[row] - supply[row]);
+        }
+    }
+
+    private void reduceColumn(int column) {
+        for (int i = 0; i < supply.length && columnSums[column] > demand[column]; i++) {
+            int index = plan.index(i, column);
+            if (index != CompactPlan.NO_CELL)
+                takeAway(index, columnSums[column] - demand[column]);
+        }
+    }
+
+    private void takeAway(int cell, int excess) {
+        int amount = Math.min(plan.getFlow(cell), excess);
+        if (amount == 0)
+            return;
+        plan.setFlow(cell, plan.getFlow(cell) - amount);
+        rowSums[plan.rowOf(cell)] -= amount;
+        columnSums[plan.columnOf(cell)] -= amount;
+    }
+
+    /**
+     * Distributes remaining supply by minimal element algorithm over cells of rows and columns that still need
+     * products. Usually there are only a few such rows and columns, so only their cells are sorted.
+     *
+     * @return indexes of cells that got products and are not basic.
+     */
+    private int[] fillRemainders() {
+        int[] rows = new int[supply.length];
+        int[] columns = new int[demand.length];
+        int rowsCount = 0;
+        int columnsCount = 0;
+        for (int i = 0; i < supply.length; i++) {
+            supply[i] -= rowSums[i];
+            if (supply[i] > 0)
+                rows[rowsCount++] = i;
+        }
+        for (int j = 0; j < demand.length; j++) {
+            demand[j] -= columnSums[j];
+            if (demand[j] > 0)
+                columns[columnsCount++] = j;
+        }
+
+        long[] cells = new long[rowsCount * columnsCount];
+        int cellsCount = 0;
+        for (int r = 0; r < rowsCount; r++) {
+            for (int c = 0; c < columnsCount; c++) {
+                int index = plan.index(rows[r], columns[c]);
+                if (index != CompactPlan.NO_CELL)
+                    cells[cellsCount++] = ((long) plan.getTariff(index) << 32) | index;
+            }
+        }
+        Arrays.sort(cells, 0, cellsCount);
+
+        int[] filledCells = new int[rowsCount + columnsCount];
+        int filledCount = 0;
+        for (int k = 0; k < cellsCount; k++) {
+            int cell = (int) (cells[k] & INDEX_MASK);
+            int row = plan.rowOf(cell);
+            int column = plan.columnOf(cell);
+            if (supply[row] == 0 || demand[column] == 0)
+                continue;
+            int amount = Math.min(supply[row], demand[column]);
+            plan.setFlow(cell, plan.getFlow(cell) + amount);
+            supply[row] -= amount;
+            demand[column] -= amount;
+            if (!plan.isBasic(cell))
+                filledCells[filledCount++] = cell;
+        }
+        return withArtificialRoutes(Arrays.copyOf(filledCells, filledCount));
+    }
+
+    /**
+     * Places supply that allowed routes of sparse plan could not take on artificial routes. New plan has other
+     * cell indexes, so indexes of filled cells are found again.
+     */
+    private int[] withArtificialRoutes(int[] filledCells) {
+        CompactPlan previous = plan;
+        plan = ArtificialRoutes.place(plan, supply, demand, false);
+        if (plan == previous)
+            return filledCells;
+        int[] cells = new int[filledCells.length + supply.length + demand.length];
+        int count = 0;
+        for (int cell : filledCells)
+            cells[count++] = plan.index(previous.rowOf(cell), previous.columnOf(cell));
+        for (int index = 0; index < plan.size(); index++) {
+            if (plan.getFlow(index) > 0 && previous.index(plan.rowOf(index), plan.columnOf(index)) == CompactPlan.NO_CELL)
+                cells[count++] = index;
+        }
+        return Arrays.copyOf(cells, count);
+    }
+}
@@ -0,0 +1,142 @@
+package com.nure.tsolver.io;
+
+import com.nure.tsolver.ProductDistributor;
+import com.nure.tsolver.SolverOptions;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Loader of problem from binary file. File is memory-mapped by regions of at most 1 GB and tariffs are copied by
+ * bulk reads right into flat tariff array of plan, so files bigger than 2 GB are supported and neither int matrix
+ * nor cell objects are created.
+ * <p>
+ * File consists of 32-bit integers:
+ * <pre>
+ * MAGIC, height, width,
+ * supply of every supplier (height values),
+ * demand of every consumer (width values),
+ * tariffs row by row (height * width values).
+ * </pre>
+ * Byte order is recognized by magic number, so both big-endian and little-endian files are read.
+ * {@code BinaryProblemWriter} writes big-endian files.
+ */
+public class BinaryProblemLoader {
+    /**
+     * First integer of problem file, {@code "TSOL"} in ASCII.
+     */
+    public static final int MAGIC = 0x54534F4C;
+    private static final int HEADER_INTS = 3;
+    private static final long REGION_SIZE = 1L << 30;
+
+    private final SolverOptions options;
+
+    /**
+     * Constructs loader of distributors with default solver options.
+     */
+    public BinaryProblemLoader() {
+        this(SolverOptions.defaults());
+    }
+
+    /**
+     * Constructs loader of distributors with specified solver options.
+     *
+     * @param options solver options of loaded distributors.
+     */
+    public BinaryProblemLoader(SolverOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * Loads problem from file. Unbalanced problem gets dummy participant, as in {@code ProductDistributor}.
+     *
+     * @param path binary problem file.
+     * @return distributor of loaded problem.
+     * @throws IOException if file can not be read or its size does not match its header.
+     */
+    public ProductDistributor load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedInts ints = new MappedInts(channel, byteOrder(channel));
+            ints.next();
+            int height = ints.next();
+            int width = ints.next();
+            if (height <= 0 || width <= 0)
+                throw new IOException("Problem file must have positive height and width");
+            long expectedSize = 4L * (HEADER_INTS + height + width + (long) height * width);
+            if (channel.size() != expectedSize)
+                throw new IOException("Problem file size " + channel.size() + " does not match its header, "
+                        + expectedSize + " bytes expected");
+
+            int[] supply = new int[height];
+            int[] demand = new int[width];
+            ints.read(supply, 0, height);
+            ints.read(demand, 0, width);
+            PlanBuilder builder = new PlanBuilder(supply, demand);
+            for (int i = 0; i < height; i++)
+                ints.read(builder.getTariffs(), builder.rowOffset(i), width);
+            return builder.build(options);
+        }
+    }
+
+    private static ByteOrder byteOrder(FileChannel channel) throws IOException {
+        ByteBuffer magic = ByteBuffer.allocate(4);
+        while (magic.hasRemaining()) {
+            if (channel.read(magic, magic.position()) < 0)
+                throw new EOFException("Problem file has no header");
+        }
+        int value = magic.getInt(0);
+        if (value == MAGIC)
+            return ByteOrder.BIG_ENDIAN;
+        if (Integer.reverseBytes(value) == MAGIC)
+            return ByteOrder.LITTLE_ENDIAN;
+        throw new IOException("File is not a problem file, magic number is not found");
+    }
+
+    /**
+     * Sequential reader of integers from file that maps the next region when current one is read.
+     */
+    private static final class MappedInts {
+        private final FileChannel channel;
+        private final ByteOrder order;
+        private long position;
+        private IntBuffer ints;
+
+        MappedInts(FileChannel channel, ByteOrder order) {
+            this.channel = channel;
+            this.order = order;
+        }
+
+        int next() throws IOException {
+            ensureRemaining();
+            return ints.get();
+        }
+
+        void read(int[] target, int offset, int length) throws IOException {
+            while (length > 0) {
+                ensureRemaining();
+                int count = Math.min(length, ints.remaining());
+                ints.get(target, offset, count);
+                offset += count;
+                length -= count;
+            }
+        }
+
+        private void ensureRemaining() throws IOException {
+            if (ints != null && ints.hasRemaining())
+                return;
+            long length = Math.min(REGION_SIZE, channel.size() - position) & ~3L;
+            if (length == 0)
+                throw new EOFException("Problem file ends before all values are read");
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            ints = region.order(order).asIntBuffer();
+            position += length;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.nure.tsolver.io;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writer of big-endian binary problem files that {@code BinaryProblemLoader} reads.
+ */
+public class BinaryProblemWriter {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Writes problem to file, existing file is replaced.
+     *
+     * @param path      target file.
+     * @param supply    supply of every supplier.
+     * @param demand    demand of every consumer.
+     * @param costArray tariffs, {@code supply.length} rows of {@code demand.length} tariffs.
+     * @throws IOException if file can not be written.
+     */
+    public void write(Path path, int[] supply, int[] demand, int[][] costArray) throws IOException {
+        if (costArray.length != supply.length)
+            throw new IllegalArgumentException("Cost matrix must have a row for every supplier");
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE))) {
+            output.writeInt(BinaryProblemLoader.MAGIC);
+            output.writeInt(supply.length);
+            output.writeInt(demand.length);
+            for (int value : supply)
+                output.writeInt(value);
+            for (int value : demand)
+                output.writeInt(value);
+            for (int[] costRow : costArray) {
+                if (costRow.length != demand.length)
+                    throw new IllegalArgumentException("Every row of cost matrix must have a tariff for every consumer");
+                for (int tariff : costRow)
+                    output.writeInt(tariff);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.nure.tsolver.io;
+
+import com.nure.tsolver.BasisTree;
+import com.nure.tsolver.IterationMetrics;
+import com.nure.tsolver.SolverListener;
+import com.nure.tsolver.model.DistributionPlan;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Listener that writes snapshot of plan every {@code interval} iterations of potential method, so solve that was
+ * killed can be continued by {@code ProductDistributor.resume}. Snapshot is written to temporary file near the
+ * checkpoint file and then moved over it, so checkpoint file always has complete snapshot. Other events are passed
+ * to delegate listener.
+ */
+public class CheckpointListener implements SolverListener {
+    private final Path path;
+    private final Path temporaryPath;
+    private final int interval;
+    private final SolverListener delegate;
+    private final PlanSnapshotWriter writer = new PlanSnapshotWriter();
+
+    /**
+     * Constructs listener without delegate.
+     *
+     * @param path     checkpoint file.
+     * @param interval count of iterations between checkpoints, must be positive.
+     */
+    public CheckpointListener(Path path, int interval) {
+        this(path, interval, SolverListener.NO_OP);
+    }
+
+    /**
+     * Constructs listener that also passes every event to delegate.
+     *
+     * @param path     checkpoint file.
+     * @param interval count of iterations between checkpoints, must be positive.
+     * @param delegate listener of solver progress, for example {@code PrintingSolverListener}.
+     */
+    public CheckpointListener(Path path, int interval, SolverListener delegate) {
+        if (interval <= 0)
+            throw new IllegalArgumentException("Checkpoint interval must be positive");
+        this.path = path;
+        this.temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+        this.interval = interval;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void onStart(DistributionPlan plan, BasisTree basisTree) {
+        delegate.onStart(plan, basisTree);
+    }
+
+    /**
+     * Writes checkpoint when iteration number is divisible by interval.
+     *
+     * @throws UncheckedIOException if checkpoint can not be written, solve is stopped.
+     */
+    @Override
+    public void onIteration(DistributionPlan plan, BasisTree basisTree, IterationMetrics metrics) {
+        if (metrics.getIteration() % interval == 0) {
+            try {
+                try (OutputStream output = Files.newOutputStream(temporaryPath)) {
+                    writer.write(plan, basisTree, metrics, output);
+                }
+                Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Checkpoint can not be written", e);
+            }
+        }
+        delegate.onIteration(plan, basisTree, metrics);
+    }
+
+    @Override
+    public void onFinish(DistributionPlan plan, IterationMetrics metrics) {
+        delegate.onFinish(plan, metrics);
+    }
+}
@@ -0,0 +1,197 @@
+package com.nure.tsolver.io;
+
+import com.nure.tsolver.ProductDistributor;
+import com.nure.tsolver.SolverOptions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Loader of problem from CSV text. Text is read in one pass through fixed buffer and numbers are parsed right from
+ * bytes into flat tariff array of plan, lines are never kept as strings.
+ * <p>
+ * The first line has supply of every supplier, the second line has demand of every consumer, then every supplier
+ * has a line with its tariffs. Values are integers separated by commas, spaces around values, {@code \r\n} line
+ * ends and empty lines at the end of text are allowed.
+ */
+public class CsvProblemLoader {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final SolverOptions options;
+
+    /**
+     * Constructs loader of distributors with default solver options.
+     */
+    public CsvProblemLoader() {
+        this(SolverOptions.defaults());
+    }
+
+    /**
+     * Constructs loader of distributors with specified solver options.
+     *
+     * @param options solver options of loaded distributors.
+     */
+    public CsvProblemLoader(SolverOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * Loads problem from file.
+     *
+     * @param path CSV problem file.
+     * @return distributor of loaded problem.
+     * @throws IOException if file can not be read or has wrong format.
+     */
+    public ProductDistributor load(Path path) throws IOException {
+        try (InputStream input = Files.newInputStream(path)) {
+            return load(input);
+        }
+    }
+
+    /**
+     * Loads problem from stream, stream is read to its end and is not closed. Unbalanced problem gets dummy
+     * participant, as in {@code ProductDistributor}.
+     *
+     * @param input CSV text of problem.
+     * @return distributor of loaded problem.
+     * @throws IOException if stream can not be read or has wrong format, message has number of wrong line.
+     */
+    public ProductDistributor load(InputStream input) throws IOException {
+        CsvReader reader = new CsvReader(input);
+        int[] supply = reader.readLine();
+        int[] demand = reader.readLine();
+        PlanBuilder builder = new PlanBuilder(supply, demand);
+        for (int i = 0; i < builder.getHeight(); i++)
+            reader.readRow(builder.getTariffs(), builder.rowOffset(i), builder.getWidth());
+        reader.readEnd();
+        return builder.build(options);
+    }
+
+    /**
+     * Tokenizer of comma separated integers.
+     */
+    private static final class CsvReader {
+        private static final int END = -1;
+
+        private final InputStream input;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int position;
+        private int limit;
+        private int line = 1;
+        private boolean lineEnded;
+
+        CsvReader(InputStream input) {
+            this.input = input;
+        }
+
+        /**
+         * Reads all values of current line.
+         */
+        int[] readLine() throws IOException {
+            int[] values = new int[16];
+            int count = 0;
+            do {
+                if (count == values.length)
+                    values = Arrays.copyOf(values, 2 * count);
+                values[count++] = nextValue();
+            } while (!lineEnded);
+            return Arrays.copyOf(values, count);
+        }
+
+        /**
+         * Reads current line that must have exactly {@code count} values into target array.
+         */
+        void readRow(int[] target, int offset, int count) throws IOException {
+            int rowLine = line;
+            for (int k = 0; k < count; k++) {
+                if (k > 0 && lineEnded)
+                    throw error(rowLine, count + " values expected, found " + k);
+                target[offset + k] = nextValue();
+            }
+            if (!lineEnded)
+                throw error(rowLine, count + " values expected, found more");
+        }
+
+        /**
+         * Checks that only whitespace remains.
+         */
+        void readEnd() throws IOException {
+            for (int b = peek(); b != END; b = peek()) {
+                if (b == '\n')
+                    line++;
+                else if (!Character.isWhitespace(b))
+                    throw error(line, "unexpected data after the last row");
+                position++;
+            }
+        }
+
+        private int nextValue() throws IOException {
+            skipSpaces();
+            int b = peek();
+            boolean negative = b == '-';
+            if (negative) {
+                position++;
+                b = peek();
+            }
+            if (b < '0' || b > '9')
+                throw error(line, "number expected");
+            long value = 0;
+            do {
+                value = 10 * value + (b - '0');
+                if (value > Integer.MAX_VALUE + 1L)
+                    throw error(line, "number is too big");
+                position++;
+                b = peek();
+            } while (b >= '0' && b <= '9');
+            if (negative)
+                value = -value;
+            if (value > Integer.MAX_VALUE)
+                throw error(line, "number is too big");
+
+            skipSpaces();
+            b = peek();
+            if (b == ',') {
+                position++;
+                lineEnded = false;
+            } else if (b == '\r' || b == '\n' || b == END) {
+                skipLineEnd();
+                lineEnded = true;
+            } else {
+                throw error(line, "comma expected");
+            }
+            return (int) value;
+        }
+
+        private void skipSpaces() throws IOException {
+            for (int b = peek(); b == ' ' || b == '\t'; b = peek())
+                position++;
+        }
+
+        private void skipLineEnd() throws IOException {
+            if (peek() == '\r')
+                position++;
+            if (peek() == '\n')
+                position++;
+            line++;
+        }
+
+        private int peek() throws IOException {
+            if (position == limit) {
+                limit = input.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return END;
+                }
+            }
+            return buffer[position] & 0xFF;
+        }
+
+        private static IOException error(int line, String message) {
+            return new IOException("Line " + line + ": " + message);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.nure.tsolver.io;
+
+import com.nure.tsolver.ProductDistributor;
+import com.nure.tsolver.SolverOptions;
+import com.nure.tsolver.model.DistributionParticipants;
+import com.nure.tsolver.model.TransportProblem;
+
+import java.io.IOException;
+
+/**
+ * Plan that loader fills from file. Supply and demand are read before tariffs, so flat tariff array is allocated
+ * once, with zero-cost row or column of dummy participant when problem is not balanced, and tariff rows are
+ * written right into it.
+ */
+final class PlanBuilder {
+    private final DistributionParticipants participants;
+    private final int height;
+    private final int width;
+    private final int planWidth;
+    private final int[] tariffs;
+
+    /**
+     * Constructs builder of plan for specified supply and demand.
+     *
+     * @param supply supply of every supplier.
+     * @param demand demand of every consumer.
+     * @throws IOException if problem has no participants or is too big for dense plan.
+     */
+    PlanBuilder(int[] supply, int[] demand) throws IOException {
+        this.height = supply.length;
+        this.width = demand.length;
+        if (height == 0 || width == 0)
+            throw new IOException("Problem must have at least one supplier and one consumer");
+        try {
+            this.participants = DistributionParticipants.of(supply, demand).balanced();
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        this.planWidth = participants.consumersCount();
+        long planSize = (long) participants.suppliersCount() * planWidth;
+        if (planSize > Integer.MAX_VALUE - 8)
+            throw new IOException("Problem has too many cells for dense plan");
+        this.tariffs = new int[(int) planSize];
+    }
+
+    int getHeight() {
+        return height;
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets tariff array of plan, row {@code i} starts at {@code rowOffset(i)}.
+     */
+    int[] getTariffs() {
+        return tariffs;
+    }
+
+    int rowOffset(int row) {
+        return row * planWidth;
+    }
+
+    ProductDistributor build(SolverOptions options) {
+        return new ProductDistributor(TransportProblem.fromTariffs(tariffs, participants), options);
+    }
+}
@@ -0,0 +1,128 @@
+package com.nure.tsolver.io;
+
+import com.nure.tsolver.model.CompactPlan;
+import com.nure.tsolver.model.DistributionPlan;
+import com.nure.tsolver.model.TransportProblem;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Reader of snapshots written by {@code PlanSnapshotWriter}. Snapshot state is applied to new plan of problem,
+ * so restored plan has current tariffs of problem. Usually it is used by {@code ProductDistributor.restore}.
+ */
+public class PlanSnapshotReader {
+
+    /**
+     * Reads snapshot and applies it to new plan of problem. Artificial routes of sparse plan are added again,
+     * basic cells get their fullness and, if snapshot has potentials, every cell gets potential sum of them.
+     * Stream is not closed and is read exactly to the end of snapshot, so it may carry more snapshots or other data
+     * after it. Stream is not buffered by reader, caller may wrap it in {@code BufferedInputStream}.
+     *
+     * @param input   snapshot stream.
+     * @param problem problem that snapshot was written for.
+     * @return plan with state of snapshot and its iteration count.
+     * @throws IOException if stream can not be read, is not a snapshot or does not match problem plan.
+     */
+    public DistributionPlan read(InputStream input, TransportProblem problem) throws IOException {
+        DataInputStream data = new DataInputStream(input);
+        if (data.readInt() != PlanSnapshotWriter.MAGIC)
+            throw new IOException("Stream is not a plan snapshot, magic number is not found");
+        int version = data.readUnsignedByte();
+        if (version != PlanSnapshotWriter.VERSION)
+            throw new IOException("Unsupported plan snapshot version " + version);
+        int height = Varints.readInt(data, Integer.MAX_VALUE, "height");
+        int width = Varints.readInt(data, Integer.MAX_VALUE, "width");
+        int size = Varints.readInt(data, Integer.MAX_VALUE, "cell count");
+        int iterationsCount = Varints.readInt(data, Integer.MAX_VALUE, "iteration count");
+        if (height != problem.getHeight() || width != problem.getWidth())
+            throw new IOException("Snapshot plan is " + height + "x" + width + ", problem plan is "
+                    + problem.getHeight() + "x" + problem.getWidth());
+
+        CompactPlan plan = withArtificialRoutes(data, problem.newPlan());
+        if (plan.size() != size)
+            throw new IOException("Snapshot plan has " + size + " cells, problem plan has " + plan.size());
+
+        int basicCount = Varints.readInt(data, size, "basic cell count");
+        int index = 0;
+        for (int k = 0; k < basicCount; k++) {
+            index += Varints.readInt(data, size - 1 - index, "basic cell index delta");
+            if (plan.isBasic(index))
+                throw new IOException("Snapshot has basic cell " + index + " twice");
+            plan.setBasic(index, Varints.readInt(data, Integer.MAX_VALUE, "fullness"));
+        }
+
+        int potentialsFlag = data.readUnsignedByte();
+        if (potentialsFlag == 1)
+            readPotentials(data, plan);
+        else if (potentialsFlag != 0)
+            throw new IOException("Snapshot has wrong potentials flag " + potentialsFlag);
+
+        DistributionPlan distributionPlan = new DistributionPlan(plan, problem.newParticipants());
+        distributionPlan.setIterationsCount(iterationsCount);
+        return distributionPlan;
+    }
+
+    /**
+     * Adds artificial routes of snapshot to plan. Routes added at different times may have different tariffs,
+     * so routes are added by groups of equal tariff.
+     */
+    private static CompactPlan withArtificialRoutes(DataInputStream data, CompactPlan plan) throws IOException {
+        int count = Varints.readInt(data, (long) plan.getHeight() * plan.getWidth(), "artificial route count");
+        if (count == 0)
+            return plan;
+        if (!plan.isSparse())
+            throw new IOException("Snapshot has artificial routes, but problem plan is not sparse");
+        int[] rows = new int[count];
+        int[] columns = new int[count];
+        int[] tariffs = new int[count];
+        for (int k = 0; k < count; k++) {
+            rows[k] = Varints.readInt(data, plan.getHeight() - 1, "artificial route row");
+            columns[k] = Varints.readInt(data, plan.getWidth() - 1, "artificial route column");
+            long tariff = Varints.readSigned(data);
+            if (tariff != (int) tariff)
+                throw new IOException("Snapshot has wrong artificial route tariff " + tariff);
+            tariffs[k] = (int) tariff;
+        }
+        boolean[] added = new boolean[count];
+        for (int first = 0; first < count; first++) {
+            if (added[first])
+                continue;
+            int[] groupRows = new int[count - first];
+            int[] groupColumns = new int[count - first];
+            int groupSize = 0;
+            for (int k = first; k < count; k++) {
+                if (added[k] || tariffs[k] != tariffs[first])
+                    continue;
+                if (plan.index(rows[k], columns[k]) != CompactPlan.NO_CELL)
+                    throw new IOException("Snapshot artificial route " + rows[k] + ":" + columns[k]
+                            + " is already a route of plan");
+                added[k] = true;
+                groupRows[groupSize] = rows[k];
+                groupColumns[groupSize++] = columns[k];
+            }
+            plan = plan.withArtificialRoutes(Arrays.copyOf(groupRows, groupSize),
+                    Arrays.copyOf(groupColumns, groupSize), new int[groupSize], tariffs[first]);
+        }
+        return plan;
+    }
+
+    private static void readPotentials(DataInputStream data, CompactPlan plan) throws IOException {
+        long[] rowPotentials = new long[plan.getHeight()];
+        long[] columnPotentials = new long[plan.getWidth()];
+        for (int i = 0; i < rowPotentials.length; i++)
+            rowPotentials[i] = Varints.readSigned(data);
+        for (int j = 0; j < columnPotentials.length; j++)
+            columnPotentials[j] = Varints.readSigned(data);
+        for (int i = 0; i < rowPotentials.length; i++) {
+            int rowStart = plan.rowStart(i);
+            int rowEnd = plan.rowEnd(i);
+            for (int index = rowStart; index < rowEnd; index++) {
+                plan.setPotentialSum(index, rowPotentials[i] + columnPotentials[plan.columnOf(index, rowStart)]
+                        - plan.getTariff(index));
+            }
+        }
+    }
+}
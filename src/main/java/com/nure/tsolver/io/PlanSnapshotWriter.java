@@ -0,0 +1,112 @@
+package com.nure.tsolver.io;
+
+import com.nure.tsolver.BasisTree;
+import com.nure.tsolver.IterationMetrics;
+import com.nure.tsolver.model.CompactPlan;
+import com.nure.tsolver.model.DistributionPlan;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writer of compact binary snapshots of distribution plan state, that {@code ProductDistributor.restore} reads
+ * back. Snapshot keeps only state of solve, tariffs and participants are taken from problem on restore.
+ * <p>
+ * Snapshot consists of:
+ * <pre>
+ * MAGIC (32-bit integer), VERSION (byte),
+ * plan height, width, cell count and iteration count,
+ * artificial routes: count, then row, column and tariff of every route,
+ * basic cells: count, then index delta from previous basic cell and fullness of every cell,
+ * potentials flag: 0, or 1 followed by potential of every row and then every column.
+ * </pre>
+ * All numbers after version are varints, tariffs and potentials are zigzag encoded. Only basic cells hold
+ * products, so one delta-encoded list of basic cells keeps both basis and fullness: optimal plan of
+ * {@code n} nodes takes about {@code 3n} bytes whatever its cell count is.
+ */
+public class PlanSnapshotWriter {
+    /**
+     * First integer of snapshot, {@code "TSNP"} in ASCII.
+     */
+    public static final int MAGIC = 0x54534E50;
+    static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Writes plan state without potentials, for example solved plan that other service re-optimizes by
+     * {@code ProductDistributor.redistribute}. Stream is flushed and not closed.
+     *
+     * @param plan   distribution plan.
+     * @param output target stream.
+     * @throws IOException if stream can not be written.
+     */
+    public void write(DistributionPlan plan, OutputStream output) throws IOException {
+        write(plan, null, plan.getIterationsCount(), output);
+    }
+
+    /**
+     * Writes plan state of running solve with potentials of basis tree and count of finished iterations, as
+     * {@code CheckpointListener} does. Stream is flushed and not closed.
+     *
+     * @param plan      current distribution plan.
+     * @param basisTree basis tree with actual potentials.
+     * @param metrics   metrics of the last finished iteration.
+     * @param output    target stream.
+     * @throws IOException if stream can not be written.
+     */
+    public void write(DistributionPlan plan, BasisTree basisTree, IterationMetrics metrics, OutputStream output)
+            throws IOException {
+        write(plan, basisTree, metrics.getIteration(), output);
+    }
+
+    private void write(DistributionPlan plan, BasisTree basisTree, int iterationsCount, OutputStream output)
+            throws IOException {
+        CompactPlan compactPlan = plan.getCompactPlan();
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(output, BUFFER_SIZE));
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        Varints.writeUnsigned(data, compactPlan.getHeight());
+        Varints.writeUnsigned(data, compactPlan.getWidth());
+        Varints.writeUnsigned(data, compactPlan.size());
+        Varints.writeUnsigned(data, iterationsCount);
+
+        int artificialCount = 0;
+        int basicCount = 0;
+        for (int index = 0; index < compactPlan.size(); index++) {
+            if (compactPlan.isArtificial(index))
+                artificialCount++;
+        }
+        for (int index = compactPlan.nextBasic(0); index >= 0; index = compactPlan.nextBasic(index + 1))
+            basicCount++;
+
+        Varints.writeUnsigned(data, artificialCount);
+        for (int index = 0; index < compactPlan.size() && artificialCount > 0; index++) {
+            if (!compactPlan.isArtificial(index))
+                continue;
+            Varints.writeUnsigned(data, compactPlan.rowOf(index));
+            Varints.writeUnsigned(data, compactPlan.columnOf(index));
+            Varints.writeSigned(data, compactPlan.getTariff(index));
+        }
+
+        Varints.writeUnsigned(data, basicCount);
+        int previous = 0;
+        for (int index = compactPlan.nextBasic(0); index >= 0; index = compactPlan.nextBasic(index + 1)) {
+            Varints.writeUnsigned(data, index - previous);
+            Varints.writeUnsigned(data, compactPlan.getFlow(index));
+            previous = index;
+        }
+
+        if (basisTree == null) {
+            data.writeByte(0);
+        } else {
+            data.writeByte(1);
+            for (int i = 0; i < compactPlan.getHeight(); i++)
+                Varints.writeSigned(data, basisTree.getRowPotential(i));
+            for (int j = 0; j < compactPlan.getWidth(); j++)
+                Varints.writeSigned(data, basisTree.getColumnPotential(j));
+        }
+        data.flush();
+    }
+}
@@ -0,0 +1,56 @@
+package com.nure.tsolver.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Variable-length encoding of integers, seven bits per byte with high bit set on every byte except the last one.
+ * Signed values are zigzag encoded first, so small negative values also take few bytes.
+ */
+final class Varints {
+
+    private Varints() {
+    }
+
+    static void writeUnsigned(OutputStream output, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            output.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.write((int) value);
+    }
+
+    static void writeSigned(OutputStream output, long value) throws IOException {
+        writeUnsigned(output, (value << 1) ^ (value >> 63));
+    }
+
+    static long readUnsigned(InputStream input) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = input.read();
+            if (b < 0)
+                throw new EOFException("Snapshot ends inside of number");
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("Snapshot has too long number");
+    }
+
+    static long readSigned(InputStream input) throws IOException {
+        long value = readUnsigned(input);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Reads unsigned number that must not be bigger than limit.
+     */
+    static int readInt(InputStream input, long limit, String name) throws IOException {
+        long value = readUnsigned(input);
+        if (value > limit)
+            throw new IOException("Snapshot has wrong " + name + " " + value);
+        return (int) value;
+    }
+}
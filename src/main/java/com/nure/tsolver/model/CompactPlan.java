@@ -0,0 +1,481 @@
+package com.nure.tsolver.model;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Struct-of-arrays storage of distribution plan. Tariffs, fullness, potential sums and basis indicator of every cell
+ * are kept in flat primitive arrays indexed by {@code row * width + column}, so plan of any size costs a few
+ * arrays instead of cell and position objects per matrix element.
+ * <p>
+ * Sparse plan keeps only cells of allowed routes. Its cells are stored row by row (CSR), cells of one row are
+ * ordered by column, and row start offsets, row and column of every cell are kept in additional arrays. All
+ * arrays of sparse plan have route count length, so memory and pricing cost do not depend on matrix size.
+ */
+@ToString
+public class CompactPlan {
+    public static final int NO_CELL = -1;
+
+    @Getter
+    private final int height;
+    @Getter
+    private final int width;
+
+    private int[] tariffs;
+    private boolean tariffsShared;
+    private final int[] flows;
+    private final long[] potentialSums;
+    private final BitSet basis;
+    private long cost;
+
+    private final int[] rowOffsets;
+    private final int[] rows;
+    private final int[] columns;
+    private final BitSet artificial;
+    @Getter
+    private int tariffScale = 1;
+
+    /**
+     * Constructs empty plan from flat tariff array, where no cell is basic.
+     *
+     * @param tariffs flat tariff array of {@code height * width} length, row by row.
+     * @param height  count of rows (suppliers).
+     * @param width   count of columns (consumers).
+     */
+    public CompactPlan(int[] tariffs, int height, int width) {
+        if (tariffs.length != height * width)
+            throw new IllegalArgumentException("Tariff array length must be equal to height multiplied by width");
+        this.height = height;
+        this.width = width;
+        this.tariffs = tariffs;
+        this.flows = new int[tariffs.length];
+        this.potentialSums = new long[tariffs.length];
+        this.basis = new BitSet(tariffs.length);
+        this.rowOffsets = null;
+        this.rows = null;
+        this.columns = null;
+        this.artificial = null;
+    }
+
+    private CompactPlan(int height, int width, int[] tariffs, int[] rowOffsets, int[] rows, int[] columns,
+                        BitSet artificial) {
+        this.height = height;
+        this.width = width;
+        this.tariffs = tariffs;
+        this.flows = new int[tariffs.length];
+        this.potentialSums = new long[tariffs.length];
+        this.basis = new BitSet(tariffs.length);
+        this.rowOffsets = rowOffsets;
+        this.rows = rows;
+        this.columns = columns;
+        this.artificial = artificial;
+    }
+
+    /**
+     * Constructs empty sparse plan from allowed routes, cells of other routes do not exist.
+     *
+     * @param routeRows    supplier row of every route.
+     * @param routeColumns consumer column of every route.
+     * @param routeTariffs tariff of every route.
+     * @param height       count of rows (suppliers).
+     * @param width        count of columns (consumers).
+     * @return plan where no cell is basic.
+     */
+    public static CompactPlan fromRoutes(int[] routeRows, int[] routeColumns, int[] routeTariffs, int height, int width) {
+        if (routeRows.length != routeColumns.length || routeRows.length != routeTariffs.length)
+            throw new IllegalArgumentException("Route arrays must have equal length");
+        return sparse(routeRows, routeColumns, routeTariffs, new BitSet(), height, width);
+    }
+
+    /**
+     * Sorts routes by row with counting sort and by column inside every row.
+     */
+    private static CompactPlan sparse(int[] routeRows, int[] routeColumns, int[] routeTariffs, BitSet routeArtificial,
+                                      int height, int width) {
+        int count = routeRows.length;
+        int[] rowOffsets = new int[height + 1];
+        for (int k = 0; k < count; k++) {
+            if (routeRows[k] < 0 || routeRows[k] >= height || routeColumns[k] < 0 || routeColumns[k] >= width)
+                throw new IllegalArgumentException("Route supplier and consumer must be in bounds of height and width of plan");
+            rowOffsets[routeRows[k] + 1]++;
+        }
+        for (int i = 0; i < height; i++)
+            rowOffsets[i + 1] += rowOffsets[i];
+
+        int[] next = Arrays.copyOf(rowOffsets, height);
+        long[] ordered = new long[count];
+        for (int k = 0; k < count; k++)
+            ordered[next[routeRows[k]]++] = ((long) routeColumns[k] << 32) | k;
+        for (int i = 0; i < height; i++)
+            Arrays.sort(ordered, rowOffsets[i], rowOffsets[i + 1]);
+
+        int[] tariffs = new int[count];
+        int[] rows = new int[count];
+        int[] columns = new int[count];
+        BitSet artificial = new BitSet();
+        for (int i = 0; i < height; i++) {
+            for (int index = rowOffsets[i]; index < rowOffsets[i + 1]; index++) {
+                int route = (int) ordered[index];
+                rows[index] = i;
+                columns[index] = routeColumns[route];
+                tariffs[index] = routeTariffs[route];
+                if (routeArtificial.get(route))
+                    artificial.set(index);
+                if (index > rowOffsets[i] && columns[index] == columns[index - 1])
+                    throw new IllegalArgumentException("Route between supplier and consumer must be set once");
+            }
+        }
+        return new CompactPlan(height, width, tariffs, rowOffsets, rows, columns, artificial);
+    }
+
+    /**
+     * Creates sparse plan with all cells of this plan and new artificial cells. Fullness, potential sums and basis
+     * of existing cells are kept, new cells get specified fullness and are not basic. Cell indexes of new plan
+     * differ from indexes of this plan.
+     *
+     * @param newRows    row of every new cell.
+     * @param newColumns column of every new cell.
+     * @param newFlows   fullness of every new cell.
+     * @param tariff     tariff of new cells.
+     * @return new plan.
+     */
+    public CompactPlan withArtificialRoutes(int[] newRows, int[] newColumns, int[] newFlows, int tariff) {
+        int count = size() + newRows.length;
+        int[] routeRows = new int[count];
+        int[] routeColumns = new int[count];
+        int[] routeTariffs = new int[count];
+        BitSet routeArtificial = new BitSet();
+        for (int index = 0; index < size(); index++) {
+            routeRows[index] = rowOf(index);
+            routeColumns[index] = columnOf(index);
+            routeTariffs[index] = tariffs[index];
+            if (isArtificial(index))
+                routeArtificial.set(index);
+        }
+        for (int k = 0; k < newRows.length; k++) {
+            routeRows[size() + k] = newRows[k];
+            routeColumns[size() + k] = newColumns[k];
+            routeTariffs[size() + k] = tariff;
+            routeArtificial.set(size() + k);
+        }
+        CompactPlan plan = sparse(routeRows, routeColumns, routeTariffs, routeArtificial, height, width);
+        for (int index = 0; index < size(); index++) {
+            int newIndex = plan.index(rowOf(index), columnOf(index));
+            plan.flows[newIndex] = flows[index];
+            plan.potentialSums[newIndex] = potentialSums[index];
+            if (basis.get(index))
+                plan.basis.set(newIndex);
+        }
+        plan.cost = cost;
+        for (int k = 0; k < newRows.length; k++)
+            plan.flows[plan.index(newRows[k], newColumns[k])] = newFlows[k];
+        plan.tariffScale = tariffScale;
+        return plan;
+    }
+
+    /**
+     * Constructs empty plan from cost matrix. Matrix must have {@code height} rows of {@code width} tariffs.
+     *
+     * @param costArray double matrix of tariffs.
+     * @param height    count of rows (suppliers).
+     * @param width     count of columns (consumers).
+     * @return plan where no cell is basic.
+     */
+    public static CompactPlan fromCostArray(int[][] costArray, int height, int width) {
+        return fromCostArray(costArray, height, width, height, width);
+    }
+
+    /**
+     * Constructs empty plan from cost matrix with additional zero-cost rows and columns of dummy participants.
+     * Matrix is copied once, right into tariff array of plan size.
+     *
+     * @param costArray  double matrix of tariffs, must have {@code height} rows of {@code width} tariffs.
+     * @param height     count of matrix rows (suppliers).
+     * @param width      count of matrix columns (consumers).
+     * @param planHeight count of plan rows, not less than {@code height}.
+     * @param planWidth  count of plan columns, not less than {@code width}.
+     * @return plan where no cell is basic.
+     */
+    public static CompactPlan fromCostArray(int[][] costArray, int height, int width, int planHeight, int planWidth) {
+        if (costArray.length != height)
+            throw new IllegalArgumentException("Cost matrix must have a row for every supplier");
+        for (int[] costRow : costArray) {
+            if (costRow.length != width)
+                throw new IllegalArgumentException("Every row of cost matrix must have a tariff for every consumer");
+        }
+        int[] tariffs = new int[planHeight * planWidth];
+        for (int i = 0; i < height; i++) {
+            System.arraycopy(costArray[i], 0, tariffs, i * planWidth, width);
+        }
+        return new CompactPlan(tariffs, planHeight, planWidth);
+    }
+
+    /**
+     * Constructs empty plan from matrix of fractional costs. Costs are kept as fixed-point tariffs with specified
+     * count of fraction digits, so solvers stay in exact integer arithmetic and plan cost in money is
+     * {@code cost / tariffScale}.
+     *
+     * @param costArray      double matrix of costs, must have {@code height} rows of {@code width} costs.
+     * @param height         count of matrix rows (suppliers).
+     * @param width          count of matrix columns (consumers).
+     * @param planHeight     count of plan rows, not less than {@code height}.
+     * @param planWidth      count of plan columns, not less than {@code width}.
+     * @param fractionDigits count of decimal digits kept after point, from 0 to 9.
+     * @return plan where no cell is basic.
+     */
+    public static CompactPlan fromCostArray(double[][] costArray, int height, int width, int planHeight, int planWidth,
+                                            int fractionDigits) {
+        if (fractionDigits < 0 || fractionDigits > 9)
+            throw new IllegalArgumentException("Count of fraction digits must be from 0 to 9");
+        if (costArray.length != height)
+            throw new IllegalArgumentException("Cost matrix must have a row for every supplier");
+        int scale = 1;
+        for (int k = 0; k < fractionDigits; k++)
+            scale *= 10;
+        int[] tariffs = new int[planHeight * planWidth];
+        for (int i = 0; i < height; i++) {
+            if (costArray[i].length != width)
+                throw new IllegalArgumentException("Every row of cost matrix must have a tariff for every consumer");
+            for (int j = 0; j < width; j++) {
+                double tariff = Math.rint(costArray[i][j] * scale);
+                if (!(Math.abs(tariff) <= Integer.MAX_VALUE))
+                    throw new IllegalArgumentException("Cost " + costArray[i][j] + " does not fit in tariff with "
+                            + fractionDigits + " fraction digits");
+                tariffs[i * planWidth + j] = (int) tariff;
+            }
+        }
+        CompactPlan plan = new CompactPlan(tariffs, planHeight, planWidth);
+        plan.tariffScale = scale;
+        return plan;
+    }
+
+    private CompactPlan(CompactPlan other) {
+        this.height = other.height;
+        this.width = other.width;
+        this.tariffs = other.tariffs;
+        this.tariffsShared = true;
+        if (!other.tariffsShared)
+            other.tariffsShared = true;
+        this.flows = other.flows.clone();
+        this.potentialSums = other.potentialSums.clone();
+        this.basis = (BitSet) other.basis.clone();
+        this.cost = other.cost;
+        this.rowOffsets = other.rowOffsets;
+        this.rows = other.rows;
+        this.columns = other.columns;
+        this.artificial = other.artificial;
+        this.tariffScale = other.tariffScale;
+    }
+
+    /**
+     * Copies fullness, potential sums and basis of plan. Tariffs are never changed by solvers and are shared
+     * until one of plans changes tariff.
+     *
+     * @return independent copy of plan state.
+     */
+    public CompactPlan copy() {
+        return new CompactPlan(this);
+    }
+
+    /**
+     * Makes this plan empty plan with tariffs of template, so arrays of plan are reused instead of new copy. Plans
+     * must have the same cells: equal height and width of dense plans or the same routes of sparse plans created
+     * from one template. Tariff array is shared with template as by {@code copy()}.
+     *
+     * @param template plan with tariffs.
+     * @return true if plan was reset, false if plans have different cells and this plan was not changed.
+     */
+    public boolean resetFrom(CompactPlan template) {
+        if (height != template.height || width != template.width || size() != template.size()
+                || rowOffsets != template.rowOffsets || columns != template.columns || artificial != template.artificial)
+            return false;
+        tariffs = template.tariffs;
+        tariffsShared = true;
+        if (!template.tariffsShared)
+            template.tariffsShared = true;
+        tariffScale = template.tariffScale;
+        clearBasis();
+        Arrays.fill(potentialSums, 0);
+        return true;
+    }
+
+    /**
+     * Marks tariff array as shared before plan is used as read-only template, so copies made concurrently never
+     * write to template.
+     */
+    void shareTariffs() {
+        tariffsShared = true;
+    }
+
+    public int size() {
+        return tariffs.length;
+    }
+
+    public boolean isSparse() {
+        return columns != null;
+    }
+
+    /**
+     * Gets index of cell by its row and column.
+     *
+     * @return cell index or {@code NO_CELL} if sparse plan has no such route.
+     */
+    public int index(int row, int column) {
+        if (columns == null)
+            return row * width + column;
+        int found = Arrays.binarySearch(columns, rowOffsets[row], rowOffsets[row + 1], column);
+        return found < 0 ? NO_CELL : found;
+    }
+
+    /**
+     * Gets index of first cell of row, cells of row have indexes from {@code rowStart(row)} to
+     * {@code rowEnd(row)} exclusive.
+     */
+    public int rowStart(int row) {
+        return columns == null ? row * width : rowOffsets[row];
+    }
+
+    public int rowEnd(int row) {
+        return columns == null ? (row + 1) * width : rowOffsets[row + 1];
+    }
+
+    public int rowOf(int index) {
+        return columns == null ? index / width : rows[index];
+    }
+
+    public int columnOf(int index) {
+        return columns == null ? index % width : columns[index];
+    }
+
+    /**
+     * Gets column of cell in row scan without division of dense plan index.
+     *
+     * @param index    cell index.
+     * @param rowStart {@code rowStart(row)} of cell row.
+     * @return cell column.
+     */
+    public int columnOf(int index, int rowStart) {
+        return columns == null ? index - rowStart : columns[index];
+    }
+
+    /**
+     * Checks whether cell is artificial route added to sparse plan to make it feasible.
+     */
+    public boolean isArtificial(int index) {
+        return artificial != null && artificial.get(index);
+    }
+
+    /**
+     * Checks whether any artificial route holds products, so plan does not satisfy real routes.
+     */
+    public boolean hasArtificialFlow() {
+        if (artificial == null)
+            return false;
+        for (int index = artificial.nextSetBit(0); index >= 0; index = artificial.nextSetBit(index + 1)) {
+            if (flows[index] > 0)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets total cost of basic cells. Cost is changed with every change of basis, fullness or tariff, so it is read
+     * without scan of plan.
+     *
+     * @return sum of tariff multiplied by fullness of all basic cells.
+     */
+    public long getCost() {
+        return cost;
+    }
+
+    public int getTariff(int index) {
+        return tariffs[index];
+    }
+
+    /**
+     * Changes tariff of cell. If tariffs are shared with other plan copies, they are copied first, so other
+     * plans keep old tariffs.
+     */
+    public void setTariff(int index, int tariff) {
+        if (tariffsShared) {
+            tariffs = tariffs.clone();
+            tariffsShared = false;
+        }
+        if (basis.get(index))
+            cost += ((long) tariff - tariffs[index]) * flows[index];
+        tariffs[index] = tariff;
+    }
+
+    public int getFlow(int index) {
+        return flows[index];
+    }
+
+    public void setFlow(int index, int flow) {
+        if (basis.get(index))
+            cost += tariffs[index] * ((long) flow - flows[index]);
+        flows[index] = flow;
+    }
+
+    public long getPotentialSum(int index) {
+        return potentialSums[index];
+    }
+
+    public void setPotentialSum(int index, long potentialSum) {
+        potentialSums[index] = potentialSum;
+    }
+
+    public boolean isBasic(int index) {
+        return basis.get(index);
+    }
+
+    /**
+     * Adds cell to basis with specified fullness.
+     */
+    public void setBasic(int index, int flow) {
+        cost += tariffs[index] * (basis.get(index) ? (long) flow - flows[index] : flow);
+        basis.set(index);
+        flows[index] = flow;
+    }
+
+    /**
+     * Removes cell from basis, its fullness becomes zero.
+     */
+    public void setNonBasic(int index) {
+        if (basis.get(index))
+            cost -= (long) tariffs[index] * flows[index];
+        basis.clear(index);
+        flows[index] = 0;
+    }
+
+    /**
+     * Gets next basic cell index.
+     *
+     * @param fromIndex index to start search from, inclusive.
+     * @return index of next basic cell or {@code NO_CELL} if there is no such cell.
+     */
+    public int nextBasic(int fromIndex) {
+        return basis.nextSetBit(fromIndex);
+    }
+
+    /**
+     * Removes all cells from basis and clears their fullness.
+     */
+    public void clearBasis() {
+        basis.clear();
+        Arrays.fill(flows, 0);
+        cost = 0;
+    }
+
+    /**
+     * Removes basic cells with zero flow from basis, so only cells that carry products stay basic.
+     */
+    public void clearZeroFlowBasis() {
+        for (int index = basis.nextSetBit(0); index >= 0; index = basis.nextSetBit(index + 1)) {
+            if (flows[index] == 0)
+                basis.clear(index);
+        }
+    }
+}
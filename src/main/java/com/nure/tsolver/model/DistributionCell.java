@@ -1,31 +1,81 @@
 package com.nure.tsolver.model;
 
-import lombok.*;
-
-@RequiredArgsConstructor
-@EqualsAndHashCode
-@ToString
+/**
+ * View of single cell of {@code CompactPlan}. All getters and setters read and write plan arrays, so view
+ * always reflects current plan state.
+ */
 public class DistributionCell {
     static final int EMPTY_FULLNESS_PLACEHOLDER = -1;
 
     private final MatrixPosition position;
-    @Getter
-    private final int tariffCost;
-    @Getter
-    @Setter
-    private int fullness;
-    @Getter
-    @Setter
-    private int potentialSum;
+    private final CompactPlan plan;
+    private final int index;
+
+    /**
+     * Constructs standalone cell with its own single cell storage.
+     *
+     * @param position   cell position in distribution matrix.
+     * @param tariffCost distribution cost of product unit.
+     */
+    public DistributionCell(MatrixPosition position, int tariffCost) {
+        this(position, new CompactPlan(new int[]{tariffCost}, 1, 1), 0);
+    }
+
+    DistributionCell(MatrixPosition position, CompactPlan plan, int index) {
+        this.position = position;
+        this.plan = plan;
+        this.index = index;
+    }
+
+    public int getTariffCost() {
+        return plan.getTariff(index);
+    }
+
+    /**
+     * Changes distribution cost of product unit, for example before re-optimization of solved plan.
+     *
+     * @param tariffCost new distribution cost.
+     */
+    public void setTariffCost(int tariffCost) {
+        plan.setTariff(index, tariffCost);
+    }
+
+    /**
+     * Gets product quantity in cell, cells that are not in basis have zero fullness.
+     *
+     * @return cell fullness.
+     */
+    public int getFullness() {
+        return plan.getFlow(index);
+    }
 
+    /**
+     * Sets product quantity in cell and adds cell to basis. Setting {@code EMPTY_FULLNESS_PLACEHOLDER} removes
+     * cell from basis.
+     *
+     * @param fullness product quantity.
+     */
+    public void setFullness(int fullness) {
+        if (fullness == EMPTY_FULLNESS_PLACEHOLDER)
+            plan.setNonBasic(index);
+        else
+            plan.setBasic(index, fullness);
+    }
 
+    public long getPotentialSum() {
+        return plan.getPotentialSum(index);
+    }
+
+    public void setPotentialSum(long potentialSum) {
+        plan.setPotentialSum(index, potentialSum);
+    }
 
     public boolean isFullnessNull(){
-        return fullness == EMPTY_FULLNESS_PLACEHOLDER;
+        return !plan.isBasic(index);
     }
 
     public void setFullnessEmpty(){
-        fullness = EMPTY_FULLNESS_PLACEHOLDER;
+        plan.setNonBasic(index);
     }
 
     public int getX(){
@@ -36,4 +86,24 @@ public class DistributionCell {
         return position.getY();
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof DistributionCell))
+            return false;
+        DistributionCell other = (DistributionCell) o;
+        return plan == other.plan && index == other.index;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(plan) + index;
+    }
+
+    @Override
+    public String toString() {
+        return "DistributionCell(position=" + position + ", tariffCost=" + getTariffCost()
+                + ", fullness=" + getFullness() + ", potentialSum=" + getPotentialSum() + ")";
+    }
 }
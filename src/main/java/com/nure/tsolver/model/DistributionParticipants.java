@@ -1,18 +1,49 @@
 package com.nure.tsolver.model;
 
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
-@RequiredArgsConstructor
 public class DistributionParticipants {
     @Getter
     private final Consumer[] consumers;
     @Getter
     private final Supplier[] suppliers;
+    private final boolean dummyConsumer;
+    private final boolean dummySupplier;
+
+    public DistributionParticipants(Consumer[] consumers, Supplier[] suppliers) {
+        this(consumers, suppliers, false, false);
+    }
+
+    /**
+     * Creates participants from supply and demand arrays. Supplier {@code i} gets position of row {@code i} and
+     * consumer {@code j} gets position of column {@code j} of cost matrix with {@code supply.length} rows and
+     * {@code demand.length} columns.
+     *
+     * @param supply supply of every supplier.
+     * @param demand demand of every consumer.
+     * @return new participants, not balanced.
+     */
+    public static DistributionParticipants of(int[] supply, int[] demand) {
+        Consumer[] consumers = new Consumer[demand.length];
+        for (int j = 0; j < demand.length; j++)
+            consumers[j] = new Consumer(demand[j], new MatrixPosition(supply.length, j));
+        Supplier[] suppliers = new Supplier[supply.length];
+        for (int i = 0; i < supply.length; i++)
+            suppliers[i] = new Supplier(supply[i], new MatrixPosition(i, demand.length));
+        return new DistributionParticipants(consumers, suppliers);
+    }
+
+    private DistributionParticipants(Consumer[] consumers, Supplier[] suppliers, boolean dummyConsumer,
+                                     boolean dummySupplier) {
+        this.consumers = consumers;
+        this.suppliers = suppliers;
+        this.dummyConsumer = dummyConsumer;
+        this.dummySupplier = dummySupplier;
+    }
 
     public int consumersCount(){
         return consumers.length;
@@ -25,9 +56,67 @@ public class DistributionParticipants {
     public DistributionParticipants clone(){
         return new DistributionParticipants(
                 Arrays.stream(consumers).map(c->new Consumer(c.getDemand(),c.getMatrixPosition())).toArray(Consumer[]::new),
-                Arrays.stream(suppliers).map(s->new Supplier(s.getSupply(),s.getMatrixPosition())).toArray(Supplier[]::new)
+                Arrays.stream(suppliers).map(s->new Supplier(s.getSupply(),s.getMatrixPosition())).toArray(Supplier[]::new),
+                dummyConsumer, dummySupplier
         );
     }
+
+    public long totalSupply() {
+        long sum = 0;
+        for (Supplier supplier : suppliers)
+            sum += supplier.getSupply();
+        return sum;
+    }
+
+    public long totalDemand() {
+        long sum = 0;
+        for (Consumer consumer : consumers)
+            sum += consumer.getDemand();
+        return sum;
+    }
+
+    /**
+     * Makes copy of participants where total supply is equal to total demand. Surplus supply is taken by dummy
+     * consumer added after all consumers, unmet demand is covered by dummy supplier added after all suppliers.
+     * Tariffs of dummy participant cells must be zero, so products that are not really delivered cost nothing.
+     *
+     * @return copy of participants, with dummy consumer or supplier if totals are not equal.
+     */
+    public DistributionParticipants balanced() {
+        long difference = totalSupply() - totalDemand();
+        if (difference == 0)
+            return clone();
+        if (Math.abs(difference) > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Difference of total supply and total demand is too big for dummy participant.");
+        DistributionParticipants copy = clone();
+        MatrixPosition position = new MatrixPosition(suppliersCount(), consumersCount());
+        if (difference > 0) {
+            Consumer[] balancedConsumers = Arrays.copyOf(copy.consumers, consumersCount() + 1);
+            balancedConsumers[consumersCount()] = new Consumer((int) difference, position);
+            return new DistributionParticipants(balancedConsumers, copy.suppliers, true, dummySupplier);
+        }
+        Supplier[] balancedSuppliers = Arrays.copyOf(copy.suppliers, suppliersCount() + 1);
+        balancedSuppliers[suppliersCount()] = new Supplier((int) -difference, position);
+        return new DistributionParticipants(copy.consumers, balancedSuppliers, dummyConsumer, true);
+    }
+
+    /**
+     * Checks whether the last consumer is dummy consumer of surplus supply.
+     *
+     * @return true if participants were balanced by dummy consumer.
+     */
+    public boolean hasDummyConsumer() {
+        return dummyConsumer;
+    }
+
+    /**
+     * Checks whether the last supplier is dummy supplier of unmet demand.
+     *
+     * @return true if participants were balanced by dummy supplier.
+     */
+    public boolean hasDummySupplier() {
+        return dummySupplier;
+    }
     public int getConsumerDemand(int index){
         checkConsumerIndex(index);
         return consumers[index].getDemand();
@@ -1,6 +1,7 @@
 package com.nure.tsolver.model;
 
 import lombok.Getter;
+import lombok.Setter;
 import lombok.ToString;
 
 @ToString
@@ -10,24 +11,68 @@ public class DistributionPlan {
     @Getter
     private int width;
 
-    private DistributionCell[][] plan;
+    @Getter
+    private CompactPlan compactPlan;
 
     private DistributionParticipants participants;
 
+    /**
+     * Count of potential method iterations that were needed to make plan optimal.
+     */
+    @Getter
+    @Setter
+    private int iterationsCount;
+
+    /**
+     * Reason why solver stopped, plan is proven optimal only with {@code SolveStatus.OPTIMAL}.
+     */
+    @Getter
+    private SolveStatus status = SolveStatus.OPTIMAL;
+    private long lowerBound;
+
     public DistributionParticipants getParticipants() {
         return participants;
     }
 
 
     /**
-     * Constructs new instance from pre-defined distribution cell matrix and participants.
+     * Constructs new instance from pre-defined distribution cell matrix and participants. Tariffs, fullness and
+     * potential sums of cells are copied to compact plan, not empty cells become basic.
      *
      * @param cells        its height and width must be equal
      *                     with participants consumer and supplier count.
      * @param participants participants of distribution.
      */
     public DistributionPlan(DistributionCell[][] cells, DistributionParticipants participants) {
-        this.plan = cells;
+        this.height = participants.suppliersCount();
+        this.width = participants.consumersCount();
+        int[] tariffs = new int[height * width];
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++) {
+                tariffs[i * width + j] = cells[i][j].getTariffCost();
+            }
+        }
+        this.compactPlan = new CompactPlan(tariffs, height, width);
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++) {
+                int index = compactPlan.index(i, j);
+                if (!cells[i][j].isFullnessNull())
+                    compactPlan.setBasic(index, cells[i][j].getFullness());
+                compactPlan.setPotentialSum(index, cells[i][j].getPotentialSum());
+            }
+        }
+        this.participants = participants;
+    }
+
+    /**
+     * Constructs new instance as view on compact plan.
+     *
+     * @param compactPlan  its height and width must be equal
+     *                     with participants consumer and supplier count.
+     * @param participants participants of distribution.
+     */
+    public DistributionPlan(CompactPlan compactPlan, DistributionParticipants participants) {
+        this.compactPlan = compactPlan;
         this.height = participants.suppliersCount();
         this.width = participants.consumersCount();
         this.participants = participants;
@@ -35,56 +80,140 @@ public class DistributionPlan {
 
 
     /**
-     * Gets cell by matrix coordinates. May throw {@code IllegalArgumentException} if i or j out of bounds.
+     * Gets cell by matrix coordinates. May throw {@code IllegalArgumentException} if i or j out of bounds or
+     * sparse plan has no route between supplier and consumer.
      *
      * @param i x (height) coordinate of matrix.
      * @param j y (width) coordinate of matrix.
-     * @return the cell the at the specified position in this plan
+     * @return view of the cell the at the specified position in this plan
      */
     public DistributionCell getCell(int i, int j) {
         if (i < 0 || j < 0 || i >= height || j >= width)
             throw new IllegalArgumentException("Array index must be positive integer and be in bounds of height and width of plan");
-        return plan[i][j];
+        int index = compactPlan.index(i, j);
+        if (index == CompactPlan.NO_CELL)
+            throw new IllegalArgumentException("Plan has no route between supplier and consumer");
+        return new DistributionCell(new MatrixPosition(i, j), compactPlan, index);
     }
 
     /**
-     * Clears fullness with empty placeholder to zero.
+     * Checks whether plan has cell at matrix coordinates, cells of dense plan always exist.
+     *
+     * @param i x (height) coordinate of matrix.
+     * @param j y (width) coordinate of matrix.
+     * @return true if sparse plan has route between supplier and consumer.
      */
-    public void clearEmptyFullness() {
-        for (DistributionCell[] distributionCells : plan) {
-            for (int j = 0; j < plan[0].length; j++) {
-                if (distributionCells[j].getFullness() == DistributionCell.EMPTY_FULLNESS_PLACEHOLDER)
-                    distributionCells[j].setFullness(0);
-            }
+    public boolean hasCell(int i, int j) {
+        return compactPlan.index(i, j) != CompactPlan.NO_CELL;
+    }
+
+    /**
+     * Gets product quantity left at every supplier, because total supply of problem was bigger than total demand.
+     * It is fullness of supplier cell in column of dummy consumer.
+     *
+     * @return surplus of every real supplier, all zeros if plan has no dummy consumer.
+     */
+    public int[] getSurplusSupply() {
+        int suppliersCount = participants.hasDummySupplier() ? height - 1 : height;
+        int[] surplus = new int[suppliersCount];
+        if (participants.hasDummyConsumer()) {
+            for (int i = 0; i < suppliersCount; i++)
+                surplus[i] = flowOf(i, width - 1);
         }
+        return surplus;
     }
 
-    public void countMoney() {
-        int sum = 0;
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                if (plan[i][j].isFullnessNull()) continue;
-                System.out.print(plan[i][j].getTariffCost() + " * " + plan[i][j].getFullness() + " + ");
-                sum += plan[i][j].getTariffCost() * plan[i][j].getFullness();
-            }
+    /**
+     * Gets product quantity that every consumer did not get, because total demand of problem was bigger than total
+     * supply. It is fullness of consumer cell in row of dummy supplier.
+     *
+     * @return unmet demand of every real consumer, all zeros if plan has no dummy supplier.
+     */
+    public int[] getUnmetDemand() {
+        int consumersCount = participants.hasDummyConsumer() ? width - 1 : width;
+        int[] unmet = new int[consumersCount];
+        if (participants.hasDummySupplier()) {
+            for (int j = 0; j < consumersCount; j++)
+                unmet[j] = flowOf(height - 1, j);
         }
-        System.out.println("= "+sum);
+        return unmet;
+    }
+
+    private int flowOf(int i, int j) {
+        int index = compactPlan.index(i, j);
+        return index == CompactPlan.NO_CELL ? 0 : compactPlan.getFlow(index);
+    }
+
+    /**
+     * Gets total distribution cost of plan in tariff units. Cost is kept by compact plan on every change of cell,
+     * so plan is not scanned and cost may be read at any moment of solve. Its range is checked by solvers before
+     * solve.
+     *
+     * @return sum of tariff multiplied by fullness of all basic cells.
+     */
+    public long countMoney() {
+        return compactPlan.getCost();
+    }
+
+    /**
+     * Marks plan as result of solve that stopped before plan was proven optimal.
+     *
+     * @param status     reason to stop.
+     * @param lowerBound lower bound of optimal cost found by solver.
+     */
+    public void setStopped(SolveStatus status, long lowerBound) {
+        this.status = status;
+        this.lowerBound = lowerBound;
+    }
+
+    /**
+     * Marks plan as optimal, solver does it before plan is improved again.
+     */
+    public void setOptimal() {
+        this.status = SolveStatus.OPTIMAL;
+    }
+
+    /**
+     * Gets lower bound of optimal cost. For optimal plan it is plan cost, for stopped plan it is bound found by
+     * solver from dual potentials of its basis.
+     *
+     * @return lower bound in tariff units, {@code Long.MIN_VALUE} if stopped solve could not find bound.
+     */
+    public long getLowerBound() {
+        return status == SolveStatus.OPTIMAL ? countMoney() : lowerBound;
+    }
+
+    /**
+     * Counts total distribution cost of plan in money. It differs from {@code countMoney()} only for plans of
+     * fractional costs, whose tariffs are fixed-point numbers.
+     *
+     * @return total cost divided by tariff scale of plan.
+     */
+    public double countCost() {
+        return (double) countMoney() / compactPlan.getTariffScale();
+    }
+
+    public void printMoney() {
+        for (int index = compactPlan.nextBasic(0); index >= 0; index = compactPlan.nextBasic(index + 1)) {
+            System.out.print(compactPlan.getTariff(index) + " * " + compactPlan.getFlow(index) + " + ");
+        }
+        System.out.println("= " + countMoney());
     }
 
     public void printPlan() {
-        System.out.println("Опорный план, построенный методом северно-западного угла");
+        System.out.println("Опорный план");
         for (int i = 0; i < height; i++) {
             System.out.println("----------------------------------------------------------");
             for (int j = 0; j < width; j++) {
                 System.out.print(String.format("%4s", "-"));
                 System.out.print(",");
-                System.out.print(String.format("%4s", plan[i][j].getTariffCost()));
+                System.out.print(String.format("%4s", tariffText(i, j)));
                 System.out.print("|");
             }
             System.out.printf("%d", participants.getSuppliers()[i].getSupply());
             System.out.println();
             for (int j = 0; j < width; j++) {
-                System.out.print(String.format("%4s", plan[i][j].getFullness() == DistributionCell.EMPTY_FULLNESS_PLACEHOLDER ? 0 : plan[i][j].getFullness()));
+                System.out.print(String.format("%4s", flowText(i, j)));
                 System.out.print(",");
                 System.out.print(String.format("%4s", "-"));
                 System.out.print("|");
@@ -105,14 +234,15 @@ public class DistributionPlan {
             for (int j = 0; j < width; j++) {
                 System.out.print(String.format("%4s", u.get(j) + v.get(i)));
                 System.out.print(",");
-                System.out.print(String.format("%4s", plan[i][j].getTariffCost()));
+                System.out.print(String.format("%4s", tariffText(i, j)));
                 System.out.print("|");
             }
             System.out.println(v.get(i));
             for (int j = 0; j < width; j++) {
-                System.out.print(String.format("%4s", plan[i][j].getFullness() == DistributionCell.EMPTY_FULLNESS_PLACEHOLDER ? 0 : plan[i][j].getFullness()));
+                System.out.print(String.format("%4s", flowText(i, j)));
                 System.out.print(",");
-                System.out.print(String.format("%4s", plan[i][j].getTariffCost() - u.get(j) - v.get(i)));
+                System.out.print(String.format("%4s", hasCell(i, j)
+                        ? compactPlan.getTariff(compactPlan.index(i, j)) - u.get(j) - v.get(i) : "x"));
                 System.out.print("|");
             }
             System.out.println();
@@ -123,4 +253,12 @@ public class DistributionPlan {
         System.out.println();
         System.out.println("----------------------------------------------------------");
     }
+
+    private String tariffText(int i, int j) {
+        return hasCell(i, j) ? String.valueOf(compactPlan.getTariff(compactPlan.index(i, j))) : "x";
+    }
+
+    private String flowText(int i, int j) {
+        return hasCell(i, j) ? String.valueOf(compactPlan.getFlow(compactPlan.index(i, j))) : "x";
+    }
 }
@@ -0,0 +1,101 @@
+package com.nure.tsolver.model;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of multi-commodity solve: plan of every commodity, lower bound of optimal cost and reason to stop.
+ * Plans of commodities show only flows, cells with products are basic, so they are not bases of potential method
+ * and can not be re-optimized by warm start. Their own status is not used, status of whole solve is kept here.
+ */
+public class MultiCommodityPlan {
+    private final List<DistributionPlan> plans;
+    /**
+     * True if products of all commodities fit into route capacities. Decomposition may not find such plan, then
+     * plans are plans of the last subproblems, which respect supply and demand, but may overload routes.
+     */
+    @Getter
+    private final boolean feasible;
+    /**
+     * Reason why decomposition stopped.
+     */
+    @Getter
+    private final SolveStatus status;
+    /**
+     * The biggest Lagrangian lower bound of optimal cost in tariff units, {@code Long.MIN_VALUE} if it is not known.
+     */
+    @Getter
+    private final long lowerBound;
+    /**
+     * Count of decomposition iterations, every iteration solves subproblems of all commodities.
+     */
+    @Getter
+    private final int iterationsCount;
+
+    /**
+     * Constructs result of solve.
+     *
+     * @param plans           plan of every commodity.
+     * @param feasible        whether plans respect route capacities.
+     * @param status          reason to stop.
+     * @param lowerBound      lower bound of optimal cost.
+     * @param iterationsCount count of decomposition iterations.
+     */
+    public MultiCommodityPlan(List<DistributionPlan> plans, boolean feasible, SolveStatus status, long lowerBound,
+                              int iterationsCount) {
+        this.plans = Collections.unmodifiableList(plans);
+        this.feasible = feasible;
+        this.status = status;
+        this.lowerBound = lowerBound;
+        this.iterationsCount = iterationsCount;
+    }
+
+    public DistributionPlan getPlan(int commodity) {
+        return plans.get(commodity);
+    }
+
+    public List<DistributionPlan> getPlans() {
+        return plans;
+    }
+
+    /**
+     * Gets total distribution cost of all commodities in tariff units.
+     *
+     * @return sum of costs of commodity plans.
+     */
+    public long countMoney() {
+        long money = 0;
+        for (DistributionPlan plan : plans)
+            money += plan.countMoney();
+        return money;
+    }
+
+    /**
+     * Gets difference between cost and lower bound of optimal cost.
+     *
+     * @return optimality gap, {@code Long.MAX_VALUE} if plan is not feasible or lower bound is not known.
+     */
+    public long getOptimalityGap() {
+        if (!feasible || lowerBound == Long.MIN_VALUE)
+            return Long.MAX_VALUE;
+        return Math.max(0, countMoney() - lowerBound);
+    }
+
+    /**
+     * Gets product quantity of all commodities that goes by route.
+     *
+     * @param i supplier index.
+     * @param j consumer index.
+     * @return sum of flows of route in plans of all commodities.
+     */
+    public long getRouteLoad(int i, int j) {
+        long load = 0;
+        for (DistributionPlan plan : plans) {
+            if (plan.hasCell(i, j))
+                load += plan.getCompactPlan().getFlow(plan.getCompactPlan().index(i, j));
+        }
+        return load;
+    }
+}
@@ -0,0 +1,136 @@
+package com.nure.tsolver.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable multi-commodity transportation problem: several commodities are shipped by the same suppliers to the
+ * same consumers, every commodity has its own tariffs, supply and demand, and products of all commodities that go
+ * by one route share capacity of this route. Every commodity is balanced separately, capacities limit only routes
+ * between real participants, routes of dummy participants are not limited.
+ */
+public final class MultiCommodityProblem {
+    /**
+     * Capacity of route that is not limited.
+     */
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private final List<TransportProblem> commodities;
+    private final int height;
+    private final int width;
+    private final int[] capacities;
+
+    /**
+     * Constructs problem from problems of single commodities and route capacities. Capacities are copied.
+     *
+     * @param commodities problems of commodities, real suppliers and consumers of all of them must be the same.
+     * @param capacities  capacity of every route between real supplier and consumer, {@code UNLIMITED} if route
+     *                    is not limited.
+     */
+    public MultiCommodityProblem(List<TransportProblem> commodities, int[][] capacities) {
+        if (commodities.isEmpty())
+            throw new IllegalArgumentException("Problem must have at least one commodity");
+        this.height = capacities.length;
+        this.width = height == 0 ? 0 : capacities[0].length;
+        for (TransportProblem commodity : commodities) {
+            if (realHeight(commodity) != height || realWidth(commodity) != width)
+                throw new IllegalArgumentException("Capacities size must be equal to count of suppliers and consumers of every commodity");
+        }
+        this.capacities = new int[height * width];
+        for (int i = 0; i < height; i++) {
+            if (capacities[i].length != width)
+                throw new IllegalArgumentException("Capacities must be rectangular matrix");
+            for (int j = 0; j < width; j++) {
+                if (capacities[i][j] < 0)
+                    throw new IllegalArgumentException("Capacity of route must not be negative");
+                this.capacities[i * width + j] = capacities[i][j];
+            }
+        }
+        this.commodities = Collections.unmodifiableList(new ArrayList<>(commodities));
+    }
+
+    /**
+     * Creates problem from cost matrices of commodities. Unbalanced commodity is balanced by dummy consumer or
+     * supplier, see {@code TransportProblem.fromCostArray}.
+     *
+     * @param costArrays   cost matrix of every commodity.
+     * @param participants participants of every commodity in order of cost matrices, they differ only by supply
+     *                     and demand.
+     * @param capacities   capacity of every route, {@code UNLIMITED} if route is not limited.
+     * @return new problem.
+     */
+    public static MultiCommodityProblem fromCostArrays(List<int[][]> costArrays,
+                                                       List<DistributionParticipants> participants,
+                                                       int[][] capacities) {
+        if (costArrays.size() != participants.size())
+            throw new IllegalArgumentException("Every commodity must have cost matrix and participants");
+        List<TransportProblem> commodities = new ArrayList<>(costArrays.size());
+        for (int k = 0; k < costArrays.size(); k++)
+            commodities.add(TransportProblem.fromCostArray(costArrays.get(k), participants.get(k)));
+        return new MultiCommodityProblem(commodities, capacities);
+    }
+
+    private static int realHeight(TransportProblem commodity) {
+        return commodity.hasDummySupplier() ? commodity.getHeight() - 1 : commodity.getHeight();
+    }
+
+    private static int realWidth(TransportProblem commodity) {
+        return commodity.hasDummyConsumer() ? commodity.getWidth() - 1 : commodity.getWidth();
+    }
+
+    public int commoditiesCount() {
+        return commodities.size();
+    }
+
+    public TransportProblem getCommodity(int commodity) {
+        return commodities.get(commodity);
+    }
+
+    public List<TransportProblem> getCommodities() {
+        return commodities;
+    }
+
+    /**
+     * Gets count of real suppliers, commodity plans may have one more row of dummy supplier.
+     *
+     * @return count of suppliers.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets count of real consumers, commodity plans may have one more column of dummy consumer.
+     *
+     * @return count of consumers.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets capacity of route shared by all commodities.
+     *
+     * @param row    supplier index.
+     * @param column consumer index.
+     * @return capacity of route between real participants, {@code UNLIMITED} for route of dummy participant.
+     */
+    public int getCapacity(int row, int column) {
+        if (row >= height || column >= width)
+            return UNLIMITED;
+        return capacities[row * width + column];
+    }
+
+    /**
+     * Gets total supply of all commodities, no route can take more products.
+     *
+     * @return sum of total supply of every commodity.
+     */
+    public long getTotalSupply() {
+        long totalSupply = 0;
+        for (TransportProblem commodity : commodities)
+            totalSupply += commodity.getTotalSupply();
+        return totalSupply;
+    }
+}
@@ -2,28 +2,33 @@ package com.nure.tsolver.model;
 
 import java.util.Arrays;
 
+/**
+ * Array of row or column potentials where every potential may be not calculated yet. Presence of value is kept
+ * separately, so any long value is a legitimate potential.
+ */
 public class PotentialArray {
-    private int[] array;
-    public static final int NULL_PLACEHOLDER = -Integer.MAX_VALUE;
+    private long[] array;
+    private boolean[] present;
 
     public PotentialArray(int size) {
-        this.array = new int[size];
-        Arrays.fill(this.array, NULL_PLACEHOLDER);
+        this.array = new long[size];
+        this.present = new boolean[size];
     }
 
-    public int get(int index) {
+    public long get(int index) {
         indexCheck(index);
         return array[index];
     }
 
-    public void set(int index, int value) {
+    public void set(int index, long value) {
         indexCheck(index);
         array[index] = value;
+        present[index] = true;
     }
 
     public boolean isNull(int index) {
         indexCheck(index);
-        return array[index] == NULL_PLACEHOLDER;
+        return !present[index];
     }
 
     private void indexCheck(int index) {
@@ -32,12 +37,13 @@ public class PotentialArray {
     }
 
     public void clear() {
-        Arrays.fill(array, NULL_PLACEHOLDER);
+        Arrays.fill(array, 0);
+        Arrays.fill(present, false);
     }
 
     public int findIndexOfNull() {
-        for (int i = 0; i < array.length; i++) {
-            if (array[i] == NULL_PLACEHOLDER)
+        for (int i = 0; i < present.length; i++) {
+            if (!present[i])
                 return i;
         }
         return -1;
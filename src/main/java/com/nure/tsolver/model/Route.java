@@ -0,0 +1,15 @@
+package com.nure.tsolver.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Allowed route of sparse problem: products of supplier can be delivered to consumer with specified tariff.
+ */
+@Data
+@AllArgsConstructor
+public class Route {
+    private final int supplier;
+    private final int consumer;
+    private final int tariff;
+}
@@ -0,0 +1,28 @@
+package com.nure.tsolver.model;
+
+/**
+ * Reason why solve of potential method or multi-commodity decomposition stopped. Only {@code OPTIMAL} plan is
+ * proven optimal, plan of other status is the best feasible plan found before stop.
+ */
+public enum SolveStatus {
+    /**
+     * No empty cell has positive potential sum, or lower bound of decomposition reached cost of plan.
+     */
+    OPTIMAL,
+    /**
+     * Optimality gap became not bigger than target gap of options.
+     */
+    TARGET_GAP,
+    /**
+     * Solve made max count of iterations of options.
+     */
+    ITERATION_LIMIT,
+    /**
+     * Time limit of options passed.
+     */
+    TIME_LIMIT,
+    /**
+     * Solving thread was interrupted or cancellation token of options was cancelled.
+     */
+    CANCELLED
+}
@@ -0,0 +1,198 @@
+package com.nure.tsolver.model;
+
+import java.util.List;
+
+/**
+ * Immutable definition of balanced transportation problem: tariffs, supply of every supplier and demand of every
+ * consumer. Problem is built once and may be shared by any count of concurrent solves. Solve takes its own plan
+ * state by {@code newPlan()}, whose tariff array stays shared with problem until plan changes a tariff, and reads
+ * supply and demand by index, so nothing of problem is copied per solve except participants of result plan.
+ */
+public final class TransportProblem {
+    private final CompactPlan costs;
+    private final DistributionParticipants participants;
+    private final int[] supply;
+    private final int[] demand;
+    private final long totalSupply;
+
+    /**
+     * Constructs problem from plan with tariffs and balanced participants. Both are copied, tariff array is shared
+     * with plan until one of them changes a tariff.
+     *
+     * @param costMatrix   plan with filled costs, its height and width must be equal
+     *                     with participants supplier and consumer count.
+     * @param participants participants with equal total supply and total demand.
+     */
+    public TransportProblem(CompactPlan costMatrix, DistributionParticipants participants) {
+        this(costMatrix.copy(), participants.clone(), true);
+    }
+
+    private TransportProblem(CompactPlan costs, DistributionParticipants participants, boolean clearBasis) {
+        if (costs.getHeight() != participants.suppliersCount() || costs.getWidth() != participants.consumersCount())
+            throw new IllegalArgumentException("Plan size must be equal to count of suppliers and consumers");
+        if (participants.totalSupply() != participants.totalDemand())
+            throw new IllegalArgumentException("Total supply must be equal to total demand.");
+        if (clearBasis)
+            costs.clearBasis();
+        costs.shareTariffs();
+        this.costs = costs;
+        this.participants = participants;
+        this.supply = new int[participants.suppliersCount()];
+        this.demand = new int[participants.consumersCount()];
+        for (int i = 0; i < supply.length; i++)
+            supply[i] = participants.getSupplierSupply(i);
+        for (int j = 0; j < demand.length; j++)
+            demand[j] = participants.getConsumerDemand(j);
+        this.totalSupply = participants.totalSupply();
+    }
+
+    /**
+     * Creates problem from cost matrix. If total supply is not equal to total demand, problem is balanced by dummy
+     * consumer or supplier with zero-cost cells, see {@code DistributionParticipants.balanced()}.
+     *
+     * @param costArray    double matrix, its height and width must be equal with participants supplier and consumer
+     *                     count.
+     * @param participants participants of distribution.
+     * @return new problem.
+     */
+    public static TransportProblem fromCostArray(int[][] costArray, DistributionParticipants participants) {
+        DistributionParticipants balanced = participants.balanced();
+        CompactPlan plan = CompactPlan.fromCostArray(costArray,
+                participants.suppliersCount(), participants.consumersCount(),
+                balanced.suppliersCount(), balanced.consumersCount());
+        return new TransportProblem(plan, balanced, false);
+    }
+
+    /**
+     * Creates problem from matrix of fractional costs, which are rounded to fixed-point tariffs with specified
+     * count of fraction digits. Unbalanced problem is balanced as for integer cost matrix.
+     *
+     * @param costArray      double matrix, its height and width must be equal with participants supplier and
+     *                       consumer count.
+     * @param fractionDigits count of decimal digits of costs kept after point, from 0 to 9.
+     * @param participants   participants of distribution.
+     * @return new problem.
+     */
+    public static TransportProblem fromCostArray(double[][] costArray, int fractionDigits,
+                                                 DistributionParticipants participants) {
+        DistributionParticipants balanced = participants.balanced();
+        CompactPlan plan = CompactPlan.fromCostArray(costArray,
+                participants.suppliersCount(), participants.consumersCount(),
+                balanced.suppliersCount(), balanced.consumersCount(), fractionDigits);
+        return new TransportProblem(plan, balanced, false);
+    }
+
+    /**
+     * Creates sparse problem, where products can be delivered only by allowed routes. Unbalanced problem gets
+     * dummy participant with zero-cost routes to every real participant.
+     *
+     * @param routes       allowed routes, every supplier and consumer pair can be set once.
+     * @param participants participants of distribution.
+     * @return new problem.
+     */
+    public static TransportProblem fromRoutes(List<Route> routes, DistributionParticipants participants) {
+        DistributionParticipants balanced = participants.balanced();
+        int height = participants.suppliersCount();
+        int width = participants.consumersCount();
+        int dummyRoutes = balanced.hasDummyConsumer() ? height : balanced.hasDummySupplier() ? width : 0;
+        int[] rows = new int[routes.size() + dummyRoutes];
+        int[] columns = new int[rows.length];
+        int[] tariffs = new int[rows.length];
+        int k = 0;
+        for (Route route : routes) {
+            rows[k] = route.getSupplier();
+            columns[k] = route.getConsumer();
+            tariffs[k++] = route.getTariff();
+        }
+        for (int d = 0; d < dummyRoutes; d++, k++) {
+            rows[k] = balanced.hasDummyConsumer() ? d : height;
+            columns[k] = balanced.hasDummyConsumer() ? width : d;
+        }
+        CompactPlan plan = CompactPlan.fromRoutes(rows, columns, tariffs,
+                balanced.suppliersCount(), balanced.consumersCount());
+        return new TransportProblem(plan, balanced, false);
+    }
+
+    /**
+     * Creates problem from flat tariff array, for example array that loader filled right from file. Array is not
+     * copied and must not be changed later.
+     *
+     * @param tariffs      flat tariff array, row by row, of supplier count multiplied by consumer count length.
+     * @param participants participants with equal total supply and total demand.
+     * @return new problem.
+     */
+    public static TransportProblem fromTariffs(int[] tariffs, DistributionParticipants participants) {
+        CompactPlan plan = new CompactPlan(tariffs, participants.suppliersCount(), participants.consumersCount());
+        return new TransportProblem(plan, participants.clone(), false);
+    }
+
+    public int getHeight() {
+        return supply.length;
+    }
+
+    public int getWidth() {
+        return demand.length;
+    }
+
+    public int getSupply(int row) {
+        return supply[row];
+    }
+
+    public int getDemand(int column) {
+        return demand[column];
+    }
+
+    /**
+     * Gets total supply, it is equal to total demand.
+     *
+     * @return sum of supply of all suppliers.
+     */
+    public long getTotalSupply() {
+        return totalSupply;
+    }
+
+    public boolean isSparse() {
+        return costs.isSparse();
+    }
+
+    /**
+     * Creates plan state for one solve, where no cell is basic. Tariff array is shared with problem until plan
+     * changes a tariff.
+     *
+     * @return new empty plan with tariffs of problem.
+     */
+    public CompactPlan newPlan() {
+        return costs.copy();
+    }
+
+    /**
+     * Gets empty plan of problem for one solve, arrays of plan of previous solve are reused when it has the same
+     * cells, see {@code CompactPlan.resetFrom}.
+     *
+     * @param previous plan of previous solve, may be null.
+     * @return previous plan reset to tariffs of problem or new plan.
+     */
+    public CompactPlan newPlan(CompactPlan previous) {
+        if (previous != null && previous.resetFrom(costs))
+            return previous;
+        return newPlan();
+    }
+
+    public boolean hasDummyConsumer() {
+        return participants.hasDummyConsumer();
+    }
+
+    public boolean hasDummySupplier() {
+        return participants.hasDummySupplier();
+    }
+
+    /**
+     * Creates participants of result plan. Every plan gets its own participants, because they may be changed
+     * before plan is re-optimized by warm start.
+     *
+     * @return copy of participants of problem.
+     */
+    public DistributionParticipants newParticipants() {
+        return participants.clone();
+    }
+}
@@ -0,0 +1,48 @@
+package com.nure.tsolver;
+
+import com.nure.tsolver.model.CompactPlan;
+import com.nure.tsolver.model.DistributionParticipants;
+import com.nure.tsolver.model.DistributionPlan;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NetworkSimplexSolverTest {
+    private static final int[][] DEGENERATE_COSTS = {{3, 0, 3}, {1, 0, 1}, {3, 1, 2}};
+    private static final int[] DEGENERATE_SUPPLY = {5, 15, 15};
+    private static final int[] DEGENERATE_DEMAND = {5, 5, 25};
+
+    @Test
+    void degeneratePlanHasFullBasis() {
+        DistributionPlan plan = distribute(SolverEngine.NETWORK_SIMPLEX);
+        CompactPlan compactPlan = plan.getCompactPlan();
+
+        assertEquals(compactPlan.getHeight() + compactPlan.getWidth() - 1, basicCellsCount(compactPlan));
+        assertEquals(distribute(SolverEngine.POTENTIAL).countMoney(), plan.countMoney());
+    }
+
+    @Test
+    void degeneratePlanIsOptimalBasisOfPotentialMethod() {
+        DistributionPlan plan = distribute(SolverEngine.NETWORK_SIMPLEX);
+        long cost = plan.countMoney();
+        int iterations = plan.getIterationsCount();
+
+        DistributionPlan resumed = new PotentialPlanSolver(plan, SolverOptions.defaults()).findOptimalPlan();
+
+        assertEquals(cost, resumed.countMoney());
+        assertEquals(iterations, resumed.getIterationsCount());
+    }
+
+    private static DistributionPlan distribute(SolverEngine engine) {
+        SolverOptions options = SolverOptions.builder().engine(engine).build();
+        DistributionParticipants participants = DistributionParticipants.of(DEGENERATE_SUPPLY, DEGENERATE_DEMAND);
+        return new ProductDistributor(DEGENERATE_COSTS, participants, options).distribute();
+    }
+
+    private static int basicCellsCount(CompactPlan plan) {
+        int count = 0;
+        for (int index = plan.nextBasic(0); index >= 0; index = plan.nextBasic(index + 1))
+            count++;
+        return count;
+    }
+}
@@ -0,0 +1,71 @@
+package com.nure.tsolver;
+
+import com.nure.tsolver.model.DistributionParticipants;
+import com.nure.tsolver.model.DistributionPlan;
+import com.nure.tsolver.model.SolveStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PotentialPlanSolverTest {
+    private static final int HEIGHT = 120;
+    private static final int WIDTH = 150;
+    private static final long SEED = 20_191_103L;
+
+    @Test
+    void targetGapStopsSolveBeforeOptimalPlan() {
+        testTargetGap(false);
+    }
+
+    @Test
+    void targetGapStopsParallelSolveBeforeOptimalPlan() {
+        testTargetGap(true);
+    }
+
+    private static void testTargetGap(boolean parallelPricing) {
+        Random random = new Random(SEED);
+        int[][] costArray = costArray(random);
+        DistributionParticipants participants = participants(random);
+        DistributionPlan optimal = new ProductDistributor(costArray, participants).distribute();
+        long targetGap = optimal.countMoney() / 10;
+
+        SolverOptions options = SolverOptions.builder()
+                .targetGap(targetGap)
+                .parallelPricing(parallelPricing)
+                .build();
+        DistributionPlan stopped = new ProductDistributor(costArray, participants, options).distribute();
+
+        assertEquals(SolveStatus.TARGET_GAP, stopped.getStatus());
+        assertTrue(stopped.getIterationsCount() < optimal.getIterationsCount());
+        assertTrue(stopped.getLowerBound() <= optimal.countMoney());
+        assertTrue(stopped.countMoney() >= optimal.countMoney());
+        assertTrue(stopped.countMoney() - stopped.getLowerBound() <= targetGap);
+    }
+
+    private static int[][] costArray(Random random) {
+        int[][] costArray = new int[HEIGHT][WIDTH];
+        for (int[] row : costArray) {
+            for (int j = 0; j < WIDTH; j++)
+                row[j] = 1 + random.nextInt(100);
+        }
+        return costArray;
+    }
+
+    private static DistributionParticipants participants(Random random) {
+        int[] supply = new int[HEIGHT];
+        int totalSupply = 0;
+        for (int i = 0; i < HEIGHT; i++) {
+            supply[i] = 1 + random.nextInt(20);
+            totalSupply += supply[i];
+        }
+        int[] demand = new int[WIDTH];
+        for (int j = 0; j < WIDTH; j++) {
+            demand[j] = j == WIDTH - 1 ? totalSupply : Math.min(totalSupply, random.nextInt(20));
+            totalSupply -= demand[j];
+        }
+        return DistributionParticipants.of(supply, demand);
+    }
+}
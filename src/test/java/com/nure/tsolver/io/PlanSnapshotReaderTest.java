@@ -0,0 +1,54 @@
+package com.nure.tsolver.io;
+
+import com.nure.tsolver.ProductDistributor;
+import com.nure.tsolver.model.CompactPlan;
+import com.nure.tsolver.model.DistributionParticipants;
+import com.nure.tsolver.model.DistributionPlan;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PlanSnapshotReaderTest {
+    private static final int TRAILER = 0x0BADF00D;
+
+    @Test
+    void readsSnapshotsWrittenBackToBackOnOneStream() throws IOException {
+        ProductDistributor first = new ProductDistributor(new int[][]{{4, 8, 1}, {2, 6, 5}},
+                DistributionParticipants.of(new int[]{30, 20}, new int[]{10, 25, 15}));
+        ProductDistributor second = new ProductDistributor(new int[][]{{3, 0, 3}, {1, 0, 1}, {3, 1, 2}},
+                DistributionParticipants.of(new int[]{5, 15, 15}, new int[]{5, 5, 25}));
+        DistributionPlan firstPlan = first.distribute();
+        DistributionPlan secondPlan = second.distribute();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PlanSnapshotWriter writer = new PlanSnapshotWriter();
+        writer.write(firstPlan, output);
+        writer.write(secondPlan, output);
+        new DataOutputStream(output).writeInt(TRAILER);
+
+        InputStream input = new ByteArrayInputStream(output.toByteArray());
+        assertSamePlan(firstPlan, first.restore(input));
+        assertSamePlan(secondPlan, second.restore(input));
+        assertEquals(TRAILER, new DataInputStream(input).readInt());
+        assertEquals(-1, input.read());
+    }
+
+    private static void assertSamePlan(DistributionPlan expected, DistributionPlan actual) {
+        CompactPlan expectedPlan = expected.getCompactPlan();
+        CompactPlan actualPlan = actual.getCompactPlan();
+        assertEquals(expectedPlan.size(), actualPlan.size());
+        for (int index = 0; index < expectedPlan.size(); index++) {
+            assertEquals(expectedPlan.isBasic(index), actualPlan.isBasic(index));
+            assertEquals(expectedPlan.getFlow(index), actualPlan.getFlow(index));
+        }
+        assertEquals(expected.countMoney(), actual.countMoney());
+        assertEquals(expected.getIterationsCount(), actual.getIterationsCount());
+    }
+}